@@ -1,44 +1,108 @@
 package com.spid.android.sdk;
 
+import android.content.BroadcastReceiver;
+import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.v4.content.LocalBroadcastManager;
 import android.text.TextUtils;
 
 import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+import com.spid.android.sdk.accesstoken.SPiDTokenRefreshScheduler;
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreaker;
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreakers;
+import com.spid.android.sdk.cache.SPiDResponseCache;
+import com.spid.android.sdk.cache.SPiDUserProfileCache;
 import com.spid.android.sdk.configuration.SPiDConfiguration;
+import com.spid.android.sdk.http.SPiDHttpResponse;
 import com.spid.android.sdk.exceptions.SPiDAuthorizationAlreadyRunningException;
 import com.spid.android.sdk.exceptions.SPiDException;
 import com.spid.android.sdk.exceptions.SPiDInvalidResponseException;
+import com.spid.android.sdk.exceptions.SPiDKeychainException;
+import com.spid.android.sdk.http.SPiDApacheHttpTransport;
+import com.spid.android.sdk.http.SPiDHttpTransport;
+import com.spid.android.sdk.jwt.SPiDJwtAssertionCache;
 import com.spid.android.sdk.keychain.SPiDKeychain;
+import com.spid.android.sdk.keychain.SPiDTokenWriter;
 import com.spid.android.sdk.listener.SPiDAuthorizationListener;
+import com.spid.android.sdk.listener.SPiDCircuitBreakerListener;
 import com.spid.android.sdk.listener.SPiDRequestListener;
 import com.spid.android.sdk.logger.SPiDLogger;
+import com.spid.android.sdk.ratelimit.SPiDRateLimiter;
 import com.spid.android.sdk.request.SPiDApiGetRequest;
 import com.spid.android.sdk.request.SPiDApiPostRequest;
 import com.spid.android.sdk.request.SPiDCodeTokenRequest;
+import com.spid.android.sdk.request.SPiDPersistentRequestQueue;
 import com.spid.android.sdk.request.SPiDRefreshTokenRequest;
 import com.spid.android.sdk.request.SPiDRequest;
+import com.spid.android.sdk.request.SPiDRequestExecutor;
+import com.spid.android.sdk.request.SPiDRequestRegistry;
 import com.spid.android.sdk.request.SPiDTokenRequest;
 import com.spid.android.sdk.response.SPiDResponse;
+import com.spid.android.sdk.retry.SPiDRetryScheduler;
 import com.spid.android.sdk.utils.SPiDUrl;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
- * Main class for SPiD, contains a singleton
+ * Main class for SPiD, contains a singleton. The authorization state is updated atomically so the client can be
+ * called from any thread.
  */
 public class SPiDClient {
     public static final String OAUTH_TOKEN = "oauth_token";
 
+    private static final String RESPONSE_CACHE_DIRECTORY = "spid-responses";
+    private static final long MAX_RESPONSE_MEMORY_CACHE_SIZE = 256 * 1024;
+    private static final String USER_PROFILE_FILE = "spid-user-profile";
+    private static final String REQUEST_QUEUE_FILE = "spid-request-queue";
+
     private static final SPiDClient instance = new SPiDClient();
 
-    private SPiDConfiguration config;
-    private SPiDAccessToken token;
-    private SPiDAuthorizationListener authorizationListener;
-    private final List<SPiDRequest> waitingRequests = new ArrayList<>();
+    private static final AtomicReferenceFieldUpdater<SPiDClient, SPiDAccessToken> TOKEN_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(SPiDClient.class, SPiDAccessToken.class, "token");
+    private static final AtomicReferenceFieldUpdater<SPiDClient, SPiDAuthorizationListener> AUTHORIZATION_LISTENER_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(SPiDClient.class, SPiDAuthorizationListener.class, "authorizationListener");
+    private static final AtomicReferenceFieldUpdater<SPiDClient, RefreshListener> PENDING_REFRESH_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(SPiDClient.class, RefreshListener.class, "pendingRefresh");
+
+    private volatile SPiDConfiguration config;
+    private volatile SPiDHttpTransport httpTransport;
+    private volatile SPiDRequestExecutor requestExecutor;
+    private volatile SPiDTokenRefreshScheduler tokenRefreshScheduler;
+    private volatile SPiDResponseCache responseCache;
+    private volatile SPiDUserProfileCache userProfileCache;
+    private volatile SPiDPersistentRequestQueue persistentRequestQueue;
+    private volatile ConnectivityReceiver connectivityReceiver;
+    private volatile SPiDCircuitBreakers circuitBreakers;
+    private volatile SPiDCircuitBreakerListener circuitBreakerListener;
+    private volatile SPiDRateLimiter rateLimiter;
+    private volatile SPiDAccessToken token;
+    private volatile SPiDAuthorizationListener authorizationListener;
+    private volatile RefreshListener pendingRefresh;
+    private volatile Future<?> tokenLoad;
+    private final Queue<SPiDRequest> waitingRequests = new ConcurrentLinkedQueue<>();
+    private final SPiDTokenWriter tokenWriter = new SPiDTokenWriter();
+    private final SPiDRetryScheduler retryScheduler = new SPiDRetryScheduler();
+    private final SPiDRequestRegistry requestRegistry = new SPiDRequestRegistry();
 
     private enum RequestType {
 
@@ -72,13 +136,112 @@ public class SPiDClient {
     }
 
     /**
-     * Configures the SPiDClient, this should be the first method called on the SPiDClient
+     * Configures the SPiDClient, this should be the first method called on the SPiDClient. The stored access token
+     * is loaded in the background, methods using the access token wait for it if called before the load finishes.
      *
      * @param config Configuration for SPiD
      */
     public void configure(SPiDConfiguration config) {
         this.config = config;
-        setAccessToken(SPiDKeychain.decryptAccessTokenFromSharedPreferences(config.getClientSecret()));
+        final SPiDHttpTransport previousTransport = httpTransport != config.getHttpTransport() ? httpTransport : null;
+        if (config.getHttpTransport() != null) {
+            httpTransport = config.getHttpTransport();
+        } else {
+            httpTransport = new SPiDApacheHttpTransport(config.getUserAgent(), config.getMaxConnections(), config.getConnectionKeepAlive());
+        }
+        SPiDRequestExecutor previousExecutor = requestExecutor;
+        requestExecutor = new SPiDRequestExecutor(config.getMaxConcurrentRequests(), config.getMaxBackgroundRequests());
+        if (previousExecutor != null) {
+            previousExecutor.shutdown();
+        }
+        if (previousTransport != null) {
+            if (previousExecutor != null) {
+                // Requests still running on the previous executor may be using the previous transport
+                previousExecutor.runOnTermination(new Runnable() {
+                    @Override
+                    public void run() {
+                        previousTransport.shutdown();
+                    }
+                });
+            } else {
+                previousTransport.shutdown();
+            }
+        }
+        if (tokenRefreshScheduler != null) {
+            tokenRefreshScheduler.stop();
+            tokenRefreshScheduler = null;
+        }
+        if (config.isProactiveTokenRefresh()) {
+            tokenRefreshScheduler = new SPiDTokenRefreshScheduler(config.getTokenRefreshFraction());
+            tokenRefreshScheduler.start(config.getContext());
+        }
+        if (config.getResponseCacheSize() > 0) {
+            responseCache = new SPiDResponseCache(new File(config.getContext().getCacheDir(), RESPONSE_CACHE_DIRECTORY),
+                    config.getClientSecret(), config.getResponseCacheSize(), Math.min(config.getResponseCacheSize(), MAX_RESPONSE_MEMORY_CACHE_SIZE));
+        } else {
+            responseCache = null;
+        }
+        if (config.isCacheUserProfile()) {
+            userProfileCache = new SPiDUserProfileCache(new File(config.getContext().getFilesDir(), USER_PROFILE_FILE),
+                    config.getClientSecret(), tokenWriter.getExecutor());
+        } else {
+            userProfileCache = null;
+        }
+        if (connectivityReceiver != null) {
+            connectivityReceiver.context.unregisterReceiver(connectivityReceiver);
+            connectivityReceiver = null;
+        }
+        if (config.isPersistentRequestQueue()) {
+            persistentRequestQueue = new SPiDPersistentRequestQueue(new File(config.getContext().getFilesDir(), REQUEST_QUEUE_FILE),
+                    tokenWriter.getExecutor());
+            // Connectivity is sticky, so the receiver also replays requests stored by a previous process
+            connectivityReceiver = new ConnectivityReceiver(config.getContext().getApplicationContext());
+            connectivityReceiver.context.registerReceiver(connectivityReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        } else {
+            persistentRequestQueue = null;
+        }
+        if (config.getCircuitBreakerPolicy() != null) {
+            circuitBreakers = new SPiDCircuitBreakers(config.getCircuitBreakerPolicy(), new CircuitBreakerDispatcher());
+        } else {
+            circuitBreakers = null;
+        }
+        rateLimiter = new SPiDRateLimiter(config.getTokenRateLimit(), config.getApiRateLimit());
+        // Cached assertions are signed with the previous sign secret
+        SPiDJwtAssertionCache.getInstance().clear();
+        loadAccessToken(config.getClientSecret());
+    }
+
+    /**
+     * Loads the stored access token in the background so that configure does not block on disk and decryption,
+     * the load runs after any pending writes
+     *
+     * @param encryptionKey Key used to decrypt the access token
+     */
+    private void loadAccessToken(final String encryptionKey) {
+        awaitTokenLoad();
+        FutureTask<Void> load = new FutureTask<>(new Runnable() {
+            @Override
+            public void run() {
+                SPiDAccessToken accessToken = null;
+                try {
+                    accessToken = SPiDKeychain.decryptAccessTokenFromSharedPreferences(encryptionKey);
+                } catch (SPiDKeychainException e) {
+                    SPiDLogger.log("Could not decrypt stored access token", e);
+                }
+                applyAccessToken(accessToken);
+                // Reads the user profile snapshot and the stored requests while we are off the main thread anyway
+                SPiDUserProfileCache profileCache = userProfileCache;
+                if (profileCache != null && accessToken != null) {
+                    profileCache.get(accessToken.getUserID());
+                }
+                SPiDPersistentRequestQueue requestQueue = persistentRequestQueue;
+                if (requestQueue != null) {
+                    requestQueue.size();
+                }
+            }
+        }, null);
+        tokenLoad = load;
+        tokenWriter.getExecutor().execute(load);
     }
 
     /**
@@ -155,29 +318,51 @@ public class SPiDClient {
     }
 
     /**
-     * Requests a new access token using the refresh token
+     * Requests a new access token using the refresh token. If a refresh is already running the listener is
+     * attached to that refresh instead of starting a new one.
      *
      * @param listener Listener called on completion or failure, can be <code>null</code>
      */
     public void refreshAccessToken(SPiDAuthorizationListener listener) {
-        if (authorizationListener == null) {
-            authorizationListener = listener;
-            SPiDTokenRequest request = new SPiDRefreshTokenRequest(authorizationListener);
-            request.execute();
-        } else {
-            if (listener != null)
-                listener.onError(new SPiDAuthorizationAlreadyRunningException("Authorization already running"));
+        while (true) {
+            RefreshListener current = pendingRefresh;
+            if (current != null && current.addListener(listener)) {
+                return;
+            }
+            RefreshListener refreshListener = new RefreshListener(listener);
+            if (PENDING_REFRESH_UPDATER.compareAndSet(this, current, refreshListener)) {
+                startRefreshRequest(refreshListener);
+                return;
+            }
         }
     }
 
+    /**
+     * Starts the refresh token request, only called by the caller that won the race to start the refresh
+     *
+     * @param listener Listener for the refresh request
+     */
+    protected void startRefreshRequest(SPiDAuthorizationListener listener) {
+        SPiDTokenRequest request = new SPiDRefreshTokenRequest(listener);
+        request.execute();
+    }
+
+    /**
+     * @return <code>true</code> if a token refresh is currently running, otherwise <code>false</code>
+     */
+    public boolean isRefreshingAccessToken() {
+        return pendingRefresh != null;
+    }
+
     /**
      * Redirects to browser for logout
      *
      */
     public void browserLogout() {
-        if (token != null) {
+        SPiDAccessToken accessToken = loadedToken();
+        if (accessToken != null) {
             if (authorizationListener == null) {
-                Intent intent = new Intent(Intent.ACTION_VIEW, Uri.parse(SPiDUrl.getLogoutURL(token)));
+                Intent intent = new Intent(Intent.ACTION_VIEW, Uri.parse(SPiDUrl.getLogoutURL(accessToken)));
                 intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
                 SPiDClient.getInstance().clearAuthorizationRequest();
                 SPiDClient.getInstance().clearAccessTokenAndWaitingRequests();
@@ -194,14 +379,15 @@ public class SPiDClient {
      * @param listener Listener called on completion or failure, can be <code>null</code>
      */
     public void apiLogout(SPiDAuthorizationListener listener) {
-        if (token != null) {
-            if (authorizationListener == null) {
-                authorizationListener = listener;
+        SPiDAccessToken accessToken = loadedToken();
+        if (accessToken != null) {
+            if (beginAuthorizationRequest(listener)) {
                 String requestURL = SPiDClient.getInstance().getConfig().getServerURL() + "/logout";
-                SPiDRequest request = new SPiDRequest(requestURL, new LogoutListener(authorizationListener));
+                SPiDRequest request = new SPiDRequest(requestURL, new LogoutListener(listener));
                 request.addQueryParameter("redirect_uri", SPiDClient.getInstance().getConfig().getRedirectURL() + "logout");
-                request.addQueryParameter("oauth_token", token.getAccessToken());
+                request.addQueryParameter("oauth_token", accessToken.getAccessToken());
                 request.setMaxRetryCount(-1);
+                request.setLeanResponse(true);
                 request.execute();
             } else {
                 if (listener != null)
@@ -217,15 +403,17 @@ public class SPiDClient {
      * @return <code>true</code> if there is an access token that has not expired, otherwise <code>false</code>
      */
     public boolean isAuthorized() {
+        SPiDAccessToken accessToken = loadedToken();
         Date currentMoment = new Date();
-        return token != null && currentMoment.before(token.getExpiresAt());
+        return accessToken != null && currentMoment.before(accessToken.getExpiresAt());
     }
 
     /**
      * @return <code>true</code> if there is a user access token (userID is valid), otherwise <code>false</code>
      */
     public boolean hasUserToken() {
-        return token != null && !token.isClientToken();
+        SPiDAccessToken accessToken = loadedToken();
+        return accessToken != null && !accessToken.isClientToken();
     }
 
     /**
@@ -242,13 +430,123 @@ public class SPiDClient {
         return config;
     }
 
+    /**
+     * @return Shared http transport used for all requests
+     */
+    public SPiDHttpTransport getHttpTransport() {
+        return httpTransport;
+    }
+
+    /**
+     * @return The cache for API GET responses, <code>null</code> if the cache is disabled
+     */
+    public SPiDResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * @return The queue for durable requests, <code>null</code> if the queue is disabled
+     */
+    public SPiDPersistentRequestQueue getPersistentRequestQueue() {
+        return persistentRequestQueue;
+    }
+
+    /**
+     * @return The per endpoint circuit breakers, <code>null</code> if they are disabled
+     */
+    public SPiDCircuitBreakers getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    /**
+     * @return The client side rate limiter, also tracks Retry-After pauses
+     */
+    public SPiDRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * @param circuitBreakerListener Called on the main thread when a circuit breaker changes state, can be <code>null</code>
+     */
+    public void setCircuitBreakerListener(SPiDCircuitBreakerListener circuitBreakerListener) {
+        this.circuitBreakerListener = circuitBreakerListener;
+    }
+
+    /**
+     * @return Scheduler for delayed request retries
+     */
+    public SPiDRetryScheduler getRetryScheduler() {
+        return retryScheduler;
+    }
+
+    /**
+     * @return Executor that runs all requests
+     */
+    public SPiDRequestExecutor getRequestExecutor() {
+        return requestExecutor;
+    }
+
+    /**
+     * @return The requests that have been executed and not yet finished
+     */
+    public SPiDRequestRegistry getRequestRegistry() {
+        return requestRegistry;
+    }
+
+    /**
+     * Cancels all unfinished requests with the tag, e.g. when the screen that started them is closed. Cancelled
+     * requests never call their listener.
+     *
+     * @param tag The tag, see {@link SPiDRequest#addTag(Object)}
+     * @return The number of cancelled requests
+     */
+    public int cancelRequests(Object tag) {
+        SPiDRequestRegistry registry = requestRegistry;
+        return registry != null ? registry.cancel(tag) : 0;
+    }
+
     /**
      * @return Access token
      */
     public SPiDAccessToken getAccessToken() {
+        return loadedToken();
+    }
+
+    /**
+     * @return The access token, waits for the stored access token if it is still being loaded
+     */
+    private SPiDAccessToken loadedToken() {
+        awaitTokenLoad();
         return token;
     }
 
+    /**
+     * Waits until the stored access token loaded by {@link #configure(SPiDConfiguration)} is available
+     */
+    private void awaitTokenLoad() {
+        Future<?> load = tokenLoad;
+        if (load == null || load.isDone()) {
+            return;
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    load.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            SPiDLogger.log("Could not load access token");
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Sends a local broadcast if the access token is updated using an Intent with the action {@link com.spid.android.sdk.accesstoken.SPiDAccessToken#SPID_ACCESS_TOKEN_EVENT}
      * and the user's id added as a String extra with the key {@link com.spid.android.sdk.accesstoken.SPiDAccessToken#USER_ID}
@@ -256,10 +554,25 @@ public class SPiDClient {
      * @param accessToken Current access token
      */
     public void setAccessToken(SPiDAccessToken accessToken) {
-        if ((token != null && !token.equals(accessToken)) || (accessToken != null && !accessToken.equals(token))) {
-            broadcastUserId(accessToken != null ? accessToken.getUserID() : null);
+        // The stored access token must not replace a newer access token
+        awaitTokenLoad();
+        applyAccessToken(accessToken);
+    }
+
+    private void applyAccessToken(SPiDAccessToken accessToken) {
+        SPiDAccessToken previous = TOKEN_UPDATER.getAndSet(this, accessToken);
+        if ((previous != null && !previous.equals(accessToken)) || (accessToken != null && !accessToken.equals(previous))) {
+            String userId = accessToken != null ? accessToken.getUserID() : null;
+            SPiDUserProfileCache profileCache = userProfileCache;
+            if (profileCache != null && previous != null && userId != null && !userId.equals(previous.getUserID())) {
+                profileCache.clear();
+            }
+            broadcastUserId(userId);
+        }
+        SPiDTokenRefreshScheduler scheduler = tokenRefreshScheduler;
+        if (scheduler != null) {
+            scheduler.schedule(accessToken);
         }
-        this.token = accessToken;
     }
 
     protected void broadcastUserId(String userId) {
@@ -282,24 +595,37 @@ public class SPiDClient {
         this.authorizationListener = authorizationListener;
     }
 
+    /**
+     * Atomically sets the authorization listener if no authorization request is running
+     *
+     * @param listener Listener for the authorization request
+     * @return <code>true</code> if the authorization request was started, <code>false</code> if another authorization request is running
+     */
+    public boolean beginAuthorizationRequest(SPiDAuthorizationListener listener) {
+        return AUTHORIZATION_LISTENER_UPDATER.compareAndSet(this, null, listener);
+    }
+
     /**
      * Request wrapper to getting one time code
      *
      * @param listener Listener called on completion or failure, can be <code>null</code>
+     * @return The request, e.g. to cancel it
      */
-    public void getOneTimeCode(SPiDRequestListener listener) {
+    public SPiDRequest getOneTimeCode(SPiDRequestListener listener) {
         SPiDRequest request = new SPiDApiPostRequest("/oauth/exchange", listener);
         request.addBodyParameter("clientId", config.getServerClientID());
         request.addBodyParameter("type", RequestType.CODE.toString());
         request.executeAuthorizedRequest();
+        return request;
     }
 
     /**
      * Request wrapper to getting session code used for hybrid login
      *
      * @param listener Listener called on completion or failure, can be <code>null</code>
+     * @return The request, e.g. to cancel it
      */
-    public void getSessionCode(SPiDRequestListener listener) {
+    public SPiDRequest getSessionCode(SPiDRequestListener listener) {
         if (TextUtils.isEmpty(config.getRedirectURL())) {
             SPiDLogger.log("Redirect URL is necessary and not set, did you forget to set it?");
         }
@@ -308,68 +634,199 @@ public class SPiDClient {
         request.addBodyParameter("type", RequestType.SESSION.toString());
         request.addBodyParameter("redirectUri", config.getServerRedirectUri());
         request.executeAuthorizedRequest();
+        return request;
     }
 
-    public void logout(SPiDRequestListener listener) {
+    public SPiDRequest logout(SPiDRequestListener listener) {
         SPiDRequest request = new SPiDRequest(SPiDClient.getInstance().getConfig().getServerURL() + "/logout", listener);
         clearAccessToken();
         request.executeAuthorizedRequest();
+        return request;
     }
 
     /**
      * Request wrapper to get current user, e.g. /user/123
      *
      * @param listener Listener called on completion or failure, can be <code>null</code>
+     * @return The request, e.g. to cancel it
      */
-    public void getCurrentUser(SPiDRequestListener listener) {
-        if (!isAuthorizedAndHasUserToken()) {
+    public SPiDRequest getCurrentUser(SPiDRequestListener listener) {
+        SPiDAccessToken accessToken = loadedToken();
+        if (!isAuthorizedAndHasUserToken() || accessToken == null) {
             throw new SPiDException("userID unavailable - are you logged in?");
         }
-        SPiDRequest request = new SPiDApiGetRequest("/user/" + token.getUserID(), listener);
+        SPiDRequest request = new SPiDApiGetRequest("/user/" + accessToken.getUserID(), listener);
         request.executeAuthorizedRequest();
+        return request;
+    }
+
+    /**
+     * Request wrapper to get current user, returning the last known profile immediately if the user profile cache
+     * is enabled, see {@link com.spid.android.sdk.configuration.SPiDConfigurationBuilder#cacheUserProfile(boolean)}.
+     * The profile is then fetched in the background and <code>updateListener</code> is only called if it changed
+     * or if the fetch failed. Without a snapshot <code>listener</code> always gets the fetched profile or the error,
+     * as with {@link #getCurrentUser(SPiDRequestListener)}.
+     *
+     * @param listener       Listener called with the last known or the fetched profile, can be <code>null</code>
+     * @param updateListener Listener called if the fetched profile differs from the last known profile, can be <code>null</code>
+     * @return The request, e.g. to cancel it
+     */
+    public SPiDRequest getCurrentUser(final SPiDRequestListener listener, final SPiDRequestListener updateListener) {
+        SPiDAccessToken accessToken = loadedToken();
+        if (!isAuthorizedAndHasUserToken() || accessToken == null) {
+            throw new SPiDException("userID unavailable - are you logged in?");
+        }
+        final SPiDUserProfileCache profileCache = userProfileCache;
+        if (profileCache == null) {
+            return getCurrentUser(listener);
+        }
+        final String userId = accessToken.getUserID();
+        final byte[] snapshot = profileCache.get(userId);
+        if (snapshot != null && listener != null) {
+            listener.onComplete(createProfileResponse(snapshot));
+        }
+        SPiDRequest request = new SPiDApiGetRequest("/user/" + userId, new SPiDRequestListener() {
+            @Override
+            public void onComplete(SPiDResponse result) {
+                boolean changed;
+                try {
+                    changed = profileCache.put(userId, result.getBody().getBytes(SPiDHttpResponse.DEFAULT_CHARSET));
+                } catch (UnsupportedEncodingException e) {
+                    changed = true;
+                }
+                if (snapshot == null) {
+                    if (listener != null) {
+                        listener.onComplete(result);
+                    }
+                } else if (changed && updateListener != null) {
+                    updateListener.onComplete(result);
+                }
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                SPiDRequestListener target = snapshot != null ? updateListener : listener;
+                if (target != null) {
+                    target.onError(exception);
+                }
+            }
+        });
+        request.executeAuthorizedRequest();
+        return request;
+    }
+
+    private static SPiDResponse createProfileResponse(byte[] profile) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json; charset=" + SPiDHttpResponse.DEFAULT_CHARSET);
+        return new SPiDResponse(new SPiDHttpResponse(200, headers, new ByteArrayInputStream(profile)));
     }
 
     /**
      * Request wrapper to get agreements
      *
      * @param listener Listener called on completion or failure, can be <code>null</code>
+     * @return The request, e.g. to cancel it
      */
-    public void getAgreements(SPiDRequestListener listener) {
-        if (!isAuthorizedAndHasUserToken()) {
+    public SPiDRequest getAgreements(SPiDRequestListener listener) {
+        SPiDAccessToken accessToken = loadedToken();
+        if (!isAuthorizedAndHasUserToken() || accessToken == null) {
             throw new SPiDException("userID is invalid - are you logged in?");
         }
-        SPiDRequest request = new SPiDApiGetRequest("/user/" + token.getUserID() + "/agreements", listener);
+        SPiDRequest request = new SPiDApiGetRequest("/user/" + accessToken.getUserID() + "/agreements", listener);
         request.executeAuthorizedRequest();
+        return request;
     }
 
     /**
      * Request wrapper to accept both the client and the platform agreement
      *
      * @param listener Listener called on completion or failure, can be <code>null</code>
+     * @return The request, e.g. to cancel it
      */
-    public void acceptAgreements(SPiDRequestListener listener) {
-        if (!isAuthorizedAndHasUserToken()) {
+    public SPiDRequest acceptAgreements(SPiDRequestListener listener) {
+        SPiDAccessToken accessToken = loadedToken();
+        if (!isAuthorizedAndHasUserToken() || accessToken == null) {
             throw new SPiDException("userID is invalid - are you logged in?");
         }
-        SPiDRequest request = new SPiDApiPostRequest("/user/" + token.getUserID() + "/agreements/accept", listener);
+        SPiDRequest request = new SPiDApiPostRequest("/user/" + accessToken.getUserID() + "/agreements/accept", listener);
+        request.setDurable(true);
         request.executeAuthorizedRequest();
+        return request;
     }
 
     /**
      * Runs requests that have been on hold during authentication
      */
     public void runWaitingRequests() {
-        List<SPiDRequest> requests = new ArrayList<>(waitingRequests);
-        waitingRequests.clear();
-
-        for (SPiDRequest request : requests) {
-            if (SPiDRequest.GET.equals(request.getMethod())) {
-                request.addQueryParameter("oauth_token", token.getAccessToken());
-            } else { // POST
-                request.addBodyParameter("oauth_token", token.getAccessToken());
-            }
-            request.execute();
+        SPiDAccessToken accessToken = loadedToken();
+        if (accessToken == null) {
+            return;
+        }
+
+        SPiDRequest request = waitingRequests.poll();
+        while (request != null) {
+            executeWaitingRequest(request, accessToken);
+            request = waitingRequests.poll();
+        }
+        replayPersistedRequests();
+    }
+
+    /**
+     * Runs a request that has been on hold during authentication, unless it has already been run or removed
+     *
+     * @param request The request
+     * @return <code>true</code> if the request was waiting and has been run
+     */
+    public boolean runWaitingRequest(SPiDRequest request) {
+        SPiDAccessToken accessToken = loadedToken();
+        if (accessToken == null || !waitingRequests.remove(request)) {
+            return false;
+        }
+        executeWaitingRequest(request, accessToken);
+        return true;
+    }
+
+    private void executeWaitingRequest(SPiDRequest request, SPiDAccessToken accessToken) {
+        if (SPiDRequest.GET.equals(request.getMethod())) {
+            request.addQueryParameter("oauth_token", accessToken.getAccessToken());
+        } else { // POST
+            request.addBodyParameter("oauth_token", accessToken.getAccessToken());
+        }
+        request.execute();
+    }
+
+    /**
+     * Sends the durable requests stored by this or a previous process that are not already being sent, in the
+     * order they were stored. The stored requests are read in the background, the requests are started on the
+     * main thread.
+     */
+    public void replayPersistedRequests() {
+        final SPiDPersistentRequestQueue queue = persistentRequestQueue;
+        if (queue == null) {
+            return;
         }
+        tokenWriter.getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                // The stored access token is loaded on this executor, so a pending load has already finished
+                if (token == null) {
+                    return;
+                }
+                final List<SPiDPersistentRequestQueue.Entry> entries = queue.takeReplayable();
+                if (entries.isEmpty()) {
+                    return;
+                }
+                new Handler(Looper.getMainLooper()).post(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (SPiDPersistentRequestQueue.Entry entry : entries) {
+                            SPiDLogger.log("Replaying stored request: " + entry.getUrl());
+                            SPiDRequest.fromPersisted(entry).executeAuthorizedRequest();
+                        }
+                    }
+                });
+            }
+        });
     }
 
     /**
@@ -377,15 +834,52 @@ public class SPiDClient {
      */
     public void clearAccessTokenAndWaitingRequests() {
         clearAccessToken();
-        waitingRequests.clear();
+        SPiDRequestRegistry registry = requestRegistry;
+        SPiDRequest request = waitingRequests.poll();
+        while (request != null) {
+            if (registry != null) {
+                registry.unregister(request.getHandle());
+            }
+            request = waitingRequests.poll();
+        }
     }
 
     /**
-     * Clears current access token for SPiDClient and SharedPreferences
+     * Clears current access token for SPiDClient and SharedPreferences, the response cache, the user profile
+     * snapshot and the stored requests, the files are cleared in the background
      */
     public void clearAccessToken() {
         setAccessToken(null);
-        SPiDKeychain.clearAccessTokenFromSharedPreferences();
+        tokenWriter.clear();
+        SPiDUserProfileCache profileCache = userProfileCache;
+        if (profileCache != null) {
+            profileCache.clear();
+        }
+        // Stored requests belong to the user that is logged out
+        SPiDPersistentRequestQueue queue = persistentRequestQueue;
+        if (queue != null) {
+            queue.clear();
+        }
+        final SPiDResponseCache cache = responseCache;
+        if (cache != null) {
+            tokenWriter.getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    cache.clear();
+                }
+            });
+        }
+    }
+
+    /**
+     * Sets the access token and saves it to SharedPreferences in the background, rapid successive updates
+     * only result in the latest token being written
+     *
+     * @param accessToken Access token to be saved
+     */
+    public void persistAccessToken(SPiDAccessToken accessToken) {
+        setAccessToken(accessToken);
+        tokenWriter.save(config.getClientSecret(), accessToken);
     }
 
     /**
@@ -397,6 +891,16 @@ public class SPiDClient {
         waitingRequests.add(request);
     }
 
+    /**
+     * Removes a request from the waiting queue
+     *
+     * @param request The request to be removed
+     * @return <code>true</code> if the request was waiting, otherwise <code>false</code>
+     */
+    public boolean removeWaitingRequest(SPiDRequest request) {
+        return waitingRequests.remove(request);
+    }
+
     /**
      *
      * @return the number of requests waiting to be executed
@@ -416,6 +920,74 @@ public class SPiDClient {
         return config.isDebugMode();
     }
 
+    /**
+     * Listener for the running token refresh, notifies every caller that attached to the refresh
+     */
+    private class RefreshListener implements SPiDAuthorizationListener {
+        private final AtomicReference<List<SPiDAuthorizationListener>> listeners =
+                new AtomicReference<>(Collections.<SPiDAuthorizationListener>emptyList());
+
+        /**
+         * Creates a RefreshListener
+         *
+         * @param listener The first listener, can be <code>null</code>
+         */
+        public RefreshListener(SPiDAuthorizationListener listener) {
+            super();
+            addListener(listener);
+        }
+
+        /**
+         * @param listener Listener to notify when the refresh completes, can be <code>null</code>
+         * @return <code>true</code> if the listener was attached, <code>false</code> if the refresh has already finished
+         */
+        public boolean addListener(SPiDAuthorizationListener listener) {
+            while (true) {
+                List<SPiDAuthorizationListener> current = listeners.get();
+                if (current == null) {
+                    return false;
+                }
+                if (listener == null) {
+                    return true;
+                }
+                List<SPiDAuthorizationListener> updated = new ArrayList<>(current);
+                updated.add(listener);
+                if (listeners.compareAndSet(current, updated)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Ends the refresh so that new callers start a new refresh
+         *
+         * @return The listeners attached to the refresh
+         */
+        private List<SPiDAuthorizationListener> finish() {
+            PENDING_REFRESH_UPDATER.compareAndSet(SPiDClient.this, this, null);
+            List<SPiDAuthorizationListener> attached = listeners.getAndSet(null);
+            return attached != null ? attached : Collections.<SPiDAuthorizationListener>emptyList();
+        }
+
+        @Override
+        public void onComplete() {
+            List<SPiDAuthorizationListener> attached = finish();
+            // Requests parked after the token request drained the queue joined this refresh, once it has finished
+            // new requests start a new refresh, so draining again here leaves none of them waiting
+            runWaitingRequests();
+            for (SPiDAuthorizationListener listener : attached) {
+                listener.onComplete();
+            }
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            for (SPiDAuthorizationListener listener : finish()) {
+                listener.onError(exception);
+            }
+        }
+    }
+
     /**
      * Listener for the logout request
      */
@@ -446,5 +1018,47 @@ public class SPiDClient {
                 listener.onError(exception);
         }
     }
-}
 
+    /**
+     * Replays stored requests when connectivity returns
+     */
+    private class ConnectivityReceiver extends BroadcastReceiver {
+        private final Context context;
+
+        /**
+         * Creates a ConnectivityReceiver
+         *
+         * @param context The application context the receiver is registered with
+         */
+        public ConnectivityReceiver(Context context) {
+            super();
+            this.context = context;
+        }
+
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (!intent.getBooleanExtra(ConnectivityManager.EXTRA_NO_CONNECTIVITY, false)) {
+                replayPersistedRequests();
+            }
+        }
+    }
+
+    /**
+     * Forwards circuit breaker state changes to the circuit breaker listener on the main thread
+     */
+    private class CircuitBreakerDispatcher implements SPiDCircuitBreakerListener {
+        @Override
+        public void onStateChanged(final String endpoint, final SPiDCircuitBreaker.State state) {
+            SPiDLogger.log("Circuit breaker for " + endpoint + " is " + state);
+            new Handler(Looper.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    SPiDCircuitBreakerListener listener = circuitBreakerListener;
+                    if (listener != null) {
+                        listener.onStateChanged(endpoint, state);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class SPiDAccessToken {
     public static final String SPID_ACCESS_TOKEN_USER_ID = "user_id";
 
     private final String accessToken;
+    private final Date issuedAt;
     private final Date expiresAt;
     private final String refreshToken;
     private final String userID;
@@ -34,10 +35,12 @@ public class SPiDAccessToken {
             this.accessToken = jsonObject.getString(SPID_ACCESS_TOKEN_KEY);
 
             Integer expiresIn = jsonObject.getInt(SPID_ACCESS_TOKEN_KEY_EXPIRES_IN);
+            Date now = new Date();
             Calendar cal = Calendar.getInstance();
-            cal.setTime(new Date());
+            cal.setTime(now);
             cal.add(Calendar.SECOND, expiresIn);
 
+            this.issuedAt = now;
             this.expiresAt = cal.getTime();
 
             // Optional values
@@ -57,11 +60,25 @@ public class SPiDAccessToken {
      * @param userID       User id for the access token
      */
     public SPiDAccessToken(String accessToken, Long expiresAt, String refreshToken, String userID) {
+        this(accessToken, null, expiresAt, refreshToken, userID);
+    }
+
+    /**
+     * Constructor for SPiDAccessToken object, used when loading from a token store
+     *
+     * @param accessToken  Access token
+     * @param issuedAt     Date when access token was received, <code>null</code> if unknown
+     * @param expiresAt    Date when access token expires
+     * @param refreshToken Refresh token
+     * @param userID       User id for the access token
+     */
+    public SPiDAccessToken(String accessToken, Long issuedAt, Long expiresAt, String refreshToken, String userID) {
         if (accessToken == null || expiresAt == null) {
             throw new SPiDAccessTokenException("Received invalid access token data");
         }
 
         this.accessToken = accessToken;
+        this.issuedAt = issuedAt != null ? new Date(issuedAt) : null;
         this.expiresAt = new Date(expiresAt);
         this.refreshToken = refreshToken;
         this.userID = userID;
@@ -75,6 +92,15 @@ public class SPiDAccessToken {
         return currentMoment.before(getExpiresAt());
     }
 
+    /**
+     * @param margin Safety margin in milliseconds, e.g. to allow for clock skew between the device and SPiD
+     * @return <code>true</code> if the access token has expired or expires within the margin
+     */
+    public boolean isExpiring(long margin) {
+        Date marginMoment = new Date(System.currentTimeMillis() + margin);
+        return !marginMoment.before(getExpiresAt());
+    }
+
     /**
      * @return Access token used to make requests to SPiD
      */
@@ -82,6 +108,14 @@ public class SPiDAccessToken {
         return accessToken;
     }
 
+    /**
+     * @return Date when the access token was received, <code>null</code> if unknown, e.g. for tokens stored by
+     * older versions of the SDK
+     */
+    public Date getIssuedAt() {
+        return issuedAt;
+    }
+
     /**
      * @return Expiry date for the access token
      */
@@ -0,0 +1,196 @@
+package com.spid.android.sdk.accesstoken;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.spid.android.sdk.SPiDClient;
+import com.spid.android.sdk.logger.SPiDLogger;
+
+/**
+ * Refreshes the access token in the background before it expires, so that requests rarely have to wait
+ * for a failed request followed by a refresh and a retry
+ */
+public class SPiDTokenRefreshScheduler {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final float refreshFraction;
+    private final Runnable refreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            refresh();
+        }
+    };
+
+    private volatile long refreshAt;
+    private Object lifecycleCallbacks;
+    private Application application;
+
+    /**
+     * Constructor for SPiDTokenRefreshScheduler
+     *
+     * @param refreshFraction Fraction of the token lifetime after which the token is refreshed, between 0 and 1
+     */
+    public SPiDTokenRefreshScheduler(float refreshFraction) {
+        this.refreshFraction = refreshFraction;
+    }
+
+    /**
+     * Starts listening for the application returning to the foreground, requires API level 14
+     *
+     * @param context Android application context
+     */
+    public void start(Context context) {
+        Context applicationContext = context.getApplicationContext();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH && applicationContext instanceof Application) {
+            ForegroundCallbacks callbacks = new ForegroundCallbacks();
+            ((Application) applicationContext).registerActivityLifecycleCallbacks(callbacks);
+            lifecycleCallbacks = callbacks;
+            // Unregistered from the same application in stop, whatever the next configuration uses
+            application = (Application) applicationContext;
+        }
+    }
+
+    /**
+     * Cancels any scheduled refresh and stops listening for the application returning to the foreground, the
+     * callbacks are removed from the application they were registered with in {@link #start(Context)}
+     */
+    @TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+    public void stop() {
+        handler.removeCallbacks(refreshRunnable);
+        refreshAt = 0;
+        if (lifecycleCallbacks != null) {
+            application.unregisterActivityLifecycleCallbacks((ForegroundCallbacks) lifecycleCallbacks);
+            lifecycleCallbacks = null;
+            application = null;
+        }
+    }
+
+    /**
+     * Schedules a refresh for the access token, replaces any previously scheduled refresh
+     *
+     * @param accessToken The current access token, <code>null</code> cancels the scheduled refresh
+     */
+    public void schedule(SPiDAccessToken accessToken) {
+        schedule(accessToken, System.currentTimeMillis());
+    }
+
+    /**
+     * Schedules a refresh for the access token, replaces any previously scheduled refresh
+     *
+     * @param accessToken The current access token, <code>null</code> cancels the scheduled refresh
+     * @param now         The current time in milliseconds
+     */
+    public void schedule(SPiDAccessToken accessToken, long now) {
+        handler.removeCallbacks(refreshRunnable);
+        refreshAt = getRefreshTime(accessToken, refreshFraction, now);
+        if (refreshAt > 0) {
+            handler.postDelayed(refreshRunnable, refreshAt - now);
+        }
+    }
+
+    /**
+     * @param accessToken     The access token, can be <code>null</code>
+     * @param refreshFraction Fraction of the token lifetime after which the token is refreshed
+     * @param now             The current time in milliseconds
+     * @return Time in milliseconds when the token should be refreshed, not before <code>now</code>, or
+     * <code>0</code> if it cannot be refreshed
+     */
+    public static long getRefreshTime(SPiDAccessToken accessToken, float refreshFraction, long now) {
+        if (accessToken == null || accessToken.getRefreshToken() == null) {
+            return 0;
+        }
+        long expiresAt = accessToken.getExpiresAt().getTime();
+        long refreshAt;
+        if (accessToken.getIssuedAt() != null) {
+            long issuedAt = accessToken.getIssuedAt().getTime();
+            refreshAt = issuedAt + (long) (Math.max(0, expiresAt - issuedAt) * refreshFraction);
+        } else {
+            // Tokens stored by older versions have no issue time, the remaining lifetime is all there is
+            refreshAt = now + (long) (Math.max(0, expiresAt - now) * refreshFraction);
+        }
+        return Math.max(refreshAt, now);
+    }
+
+    /**
+     * @return Time in milliseconds when the scheduled refresh runs, <code>0</code> if no refresh is scheduled
+     */
+    public long getRefreshAt() {
+        return refreshAt;
+    }
+
+    /**
+     * Refreshes the access token right away if the scheduled refresh time has passed, this is needed since
+     * scheduled callbacks do not run while the device is asleep
+     */
+    public void onForeground() {
+        onForeground(System.currentTimeMillis());
+    }
+
+    /**
+     * Refreshes the access token right away if the scheduled refresh time has passed
+     *
+     * @param now The current time in milliseconds
+     */
+    public void onForeground(long now) {
+        long scheduled = refreshAt;
+        if (scheduled > 0 && now >= scheduled) {
+            handler.removeCallbacks(refreshRunnable);
+            refresh();
+        }
+    }
+
+    /**
+     * Starts the token refresh
+     */
+    protected void refresh() {
+        SPiDLogger.log("Refreshing access token ahead of expiry");
+        // refreshAt is kept so that a failed refresh is retried when the application returns to the foreground
+        SPiDClient.getInstance().refreshAccessToken(null);
+    }
+
+    /**
+     * Detects when the first activity of the application is started
+     */
+    @TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+    private class ForegroundCallbacks implements Application.ActivityLifecycleCallbacks {
+        private int startedActivities;
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+            if (startedActivities++ == 0) {
+                onForeground();
+            }
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+            startedActivities = Math.max(0, startedActivities - 1);
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+        }
+    }
+}
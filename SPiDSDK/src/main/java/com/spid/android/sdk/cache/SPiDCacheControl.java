@@ -0,0 +1,104 @@
+package com.spid.android.sdk.cache;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * The directives of a Cache-Control response header that matter to a private client cache, with the Expires header
+ * as fallback for responses without a max-age
+ */
+public class SPiDCacheControl {
+
+    private static final String HTTP_DATE_FORMAT = "EEE, dd MMM yyyy HH:mm:ss zzz";
+
+    private final boolean noStore;
+    private final boolean noCache;
+    private final long maxAgeSeconds;
+    private final long expiresLifetime;
+
+    private SPiDCacheControl(boolean noStore, boolean noCache, long maxAgeSeconds, long expiresLifetime) {
+        this.noStore = noStore;
+        this.noCache = noCache;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.expiresLifetime = expiresLifetime;
+    }
+
+    /**
+     * Parses a Cache-Control header, the Expires header is only used if there is no max-age directive
+     *
+     * @param header  The Cache-Control header value, can be <code>null</code>
+     * @param expires The Expires header value, can be <code>null</code>
+     * @param date    The Date header value, can be <code>null</code>. The lifetime given by Expires is measured
+     *                from the Date header so that it does not depend on the device clock.
+     * @return The parsed directives
+     */
+    public static SPiDCacheControl parse(String header, String expires, String date) {
+        boolean noStore = false;
+        boolean noCache = false;
+        long maxAge = -1;
+        if (header != null) {
+            for (String directive : header.split(",")) {
+                String trimmed = directive.trim().toLowerCase(Locale.US);
+                if (trimmed.equals("no-store")) {
+                    noStore = true;
+                } else if (trimmed.equals("no-cache")) {
+                    noCache = true;
+                } else if (trimmed.startsWith("max-age=")) {
+                    try {
+                        maxAge = Long.parseLong(trimmed.substring(8).replace("\"", "").trim());
+                    } catch (NumberFormatException e) {
+                        maxAge = 0;
+                    }
+                }
+            }
+        }
+        long expiresLifetime = -1;
+        if (maxAge == -1 && expires != null) {
+            long expiresAt = parseHttpDate(expires);
+            long dateAt = date != null ? parseHttpDate(date) : -1;
+            // An invalid Expires value, such as "0", means the response has already expired
+            expiresLifetime = expiresAt == -1 ? 0 : expiresAt - (dateAt != -1 ? dateAt : System.currentTimeMillis());
+        }
+        return new SPiDCacheControl(noStore, noCache, maxAge, expiresLifetime);
+    }
+
+    /**
+     * @return <code>true</code> if the response must not be stored
+     */
+    public boolean isNoStore() {
+        return noStore;
+    }
+
+    /**
+     * @param now The current time in milliseconds
+     * @return Time in milliseconds until which the response is fresh, <code>now</code> if it must be revalidated
+     */
+    public long getExpiresAt(long now) {
+        if (noCache) {
+            return now;
+        }
+        if (maxAgeSeconds > 0) {
+            return now + maxAgeSeconds * 1000;
+        }
+        if (maxAgeSeconds == -1 && expiresLifetime > 0) {
+            return now + expiresLifetime;
+        }
+        return now;
+    }
+
+    /**
+     * @param value An HTTP date
+     * @return The date in milliseconds, <code>-1</code> if it is not a valid HTTP date
+     */
+    private static long parseHttpDate(String value) {
+        SimpleDateFormat format = new SimpleDateFormat(HTTP_DATE_FORMAT, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return format.parse(value.trim()).getTime();
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.spid.android.sdk.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A cached response body together with its validators and freshness lifetime
+ */
+public class SPiDCacheEntry {
+
+    private static final int VERSION = 1;
+
+    private final int code;
+    private final String contentType;
+    private final byte[] body;
+    private final String etag;
+    private final String lastModified;
+    private final long expiresAt;
+
+    /**
+     * Constructor for SPiDCacheEntry
+     *
+     * @param code         The http status code
+     * @param contentType  The content type, can be <code>null</code>
+     * @param body         The response body
+     * @param etag         The ETag validator, can be <code>null</code>
+     * @param lastModified The Last-Modified validator, can be <code>null</code>
+     * @param expiresAt    Time in milliseconds until which the entry can be used without revalidation
+     */
+    public SPiDCacheEntry(int code, String contentType, byte[] body, String etag, String lastModified, long expiresAt) {
+        this.code = code;
+        this.contentType = contentType;
+        this.body = body;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Creates an entry from a response, honoring the Cache-Control and Expires headers
+     *
+     * @param code    The http status code
+     * @param headers The response headers
+     * @param body    The response body
+     * @param now     The current time in milliseconds
+     * @return The entry, <code>null</code> if the response must not be stored
+     */
+    public static SPiDCacheEntry fromResponse(int code, Map<String, String> headers, byte[] body, long now) {
+        SPiDCacheControl cacheControl = parseCacheControl(headers);
+        if (cacheControl.isNoStore()) {
+            return null;
+        }
+        String etag = getHeader(headers, "ETag");
+        String lastModified = getHeader(headers, "Last-Modified");
+        long expiresAt = cacheControl.getExpiresAt(now);
+        if (etag == null && lastModified == null && expiresAt <= now) {
+            // Can neither be served fresh nor revalidated
+            return null;
+        }
+        return new SPiDCacheEntry(code, getHeader(headers, "Content-Type"), body, etag, lastModified, expiresAt);
+    }
+
+    /**
+     * Creates an updated entry after the server confirmed the entry with a 304 response
+     *
+     * @param headers The headers of the 304 response
+     * @param now     The current time in milliseconds
+     * @return The updated entry
+     */
+    public SPiDCacheEntry revalidated(Map<String, String> headers, long now) {
+        String newEtag = getHeader(headers, "ETag");
+        String newLastModified = getHeader(headers, "Last-Modified");
+        long newExpiresAt = parseCacheControl(headers).getExpiresAt(now);
+        return new SPiDCacheEntry(code, contentType, body,
+                newEtag != null ? newEtag : etag,
+                newLastModified != null ? newLastModified : lastModified,
+                newExpiresAt);
+    }
+
+    /**
+     * @param now The current time in milliseconds
+     * @return <code>true</code> if the entry can be used without revalidation
+     */
+    public boolean isFresh(long now) {
+        return now < expiresAt;
+    }
+
+    /**
+     * @return The http status code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return The content type, can be <code>null</code>
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return The response body
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return The ETag validator, can be <code>null</code>
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return The Last-Modified validator, can be <code>null</code>
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return Size of the entry in bytes, used to bound the cache
+     */
+    public int getSize() {
+        return body.length;
+    }
+
+    /**
+     * @return The entry encoded for disk storage
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 128);
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            output.writeByte(VERSION);
+            output.writeInt(code);
+            writeOptionalString(output, contentType);
+            writeOptionalString(output, etag);
+            writeOptionalString(output, lastModified);
+            output.writeLong(expiresAt);
+            output.writeInt(body.length);
+            output.write(body);
+            output.flush();
+        } catch (IOException e) {
+            // Shouldn't be possible writing to memory...
+            throw new IllegalStateException("Could not encode cache entry", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param bytes An entry encoded with {@link #encode()}
+     * @return The entry
+     * @throws IOException If the entry is truncated or has an unknown version
+     */
+    public static SPiDCacheEntry decode(byte[] bytes) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        int version = input.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported cache entry version " + version);
+        }
+        int code = input.readInt();
+        String contentType = readOptionalString(input);
+        String etag = readOptionalString(input);
+        String lastModified = readOptionalString(input);
+        long expiresAt = input.readLong();
+        byte[] body = new byte[input.readInt()];
+        input.readFully(body);
+        return new SPiDCacheEntry(code, contentType, body, etag, lastModified, expiresAt);
+    }
+
+    private static SPiDCacheControl parseCacheControl(Map<String, String> headers) {
+        return SPiDCacheControl.parse(getHeader(headers, "Cache-Control"), getHeader(headers, "Expires"),
+                getHeader(headers, "Date"));
+    }
+
+    private static String getHeader(Map<String, String> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static void writeOptionalString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readOptionalString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
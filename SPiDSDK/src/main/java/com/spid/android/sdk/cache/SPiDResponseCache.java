@@ -0,0 +1,286 @@
+package com.spid.android.sdk.cache;
+
+import com.spid.android.sdk.keychain.SPiDKeychainCipher;
+import com.spid.android.sdk.utils.SPiDUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Response cache for API GET requests, with a bounded memory LRU in front of a bounded disk LRU. Entries are
+ * keyed on the request url and query without the access token, together with the user id. The responses are
+ * authorized, so entries are encrypted on disk with a key derived from a random salt that is created on the first
+ * write and stored next to the entries.
+ */
+public class SPiDResponseCache {
+
+    private static final String OAUTH_TOKEN = "oauth_token";
+    private static final String ENTRY_SUFFIX = ".entry";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String SALT_FILE = "cache.salt";
+    private static final String SALT_CHARSET = "US-ASCII";
+
+    private final File directory;
+    private final String encryptionKey;
+    private final long maxDiskSize;
+    private final long maxMemorySize;
+
+    private final LinkedHashMap<String, SPiDCacheEntry> memoryEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memorySize;
+
+    private LinkedHashMap<String, Long> diskEntries;
+    private long diskSize;
+    private String salt;
+
+    /**
+     * Constructor for SPiDResponseCache
+     *
+     * @param directory     Directory for the disk cache, e.g. in <code>Context.getCacheDir()</code>
+     * @param encryptionKey Key used to encrypt the entries on disk
+     * @param maxDiskSize   Maximum size of the disk cache in bytes
+     * @param maxMemorySize Maximum size of the memory cache in bytes
+     */
+    public SPiDResponseCache(File directory, String encryptionKey, long maxDiskSize, long maxMemorySize) {
+        this.directory = directory;
+        this.encryptionKey = encryptionKey;
+        this.maxDiskSize = maxDiskSize;
+        this.maxMemorySize = maxMemorySize;
+    }
+
+    /**
+     * Creates the cache key for a request
+     *
+     * @param url    The request url without query
+     * @param query  The query parameters, <code>oauth_token</code> is ignored
+     * @param userId The user the request is made for, can be <code>null</code> for client requests
+     * @return The cache key
+     */
+    public static String createKey(String url, Map<String, String> query, String userId) {
+        StringBuilder builder = new StringBuilder(url);
+        // Sorted so that the key does not depend on the order the parameters were added in
+        for (Map.Entry<String, String> entry : new TreeMap<>(query).entrySet()) {
+            if (!OAUTH_TOKEN.equals(entry.getKey())) {
+                builder.append('&').append(entry.getKey()).append('=').append(entry.getValue());
+            }
+        }
+        builder.append('#').append(userId);
+        return builder.toString();
+    }
+
+    /**
+     * @param key The cache key
+     * @return The cached entry, <code>null</code> if there is none
+     */
+    public synchronized SPiDCacheEntry get(String key) {
+        SPiDCacheEntry entry = memoryEntries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        String fileName = getFileName(key);
+        // get, unlike containsKey, moves the file to the end of the access order
+        if (getDiskEntries().get(fileName) == null) {
+            return null;
+        }
+        File file = new File(directory, fileName);
+        try {
+            entry = SPiDCacheEntry.decode(getCipher().decrypt(readFile(file)));
+        } catch (IOException | GeneralSecurityException e) {
+            // Also entries written before they were encrypted, or with a salt that has been lost
+            removeFile(fileName);
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        putInMemory(key, entry);
+        return entry;
+    }
+
+    /**
+     * Stores an entry, replacing any previous entry for the key
+     *
+     * @param key   The cache key
+     * @param entry The entry
+     */
+    public synchronized void put(String key, SPiDCacheEntry entry) {
+        putInMemory(key, entry);
+        if (entry.getSize() > maxDiskSize) {
+            removeFile(getFileName(key));
+            return;
+        }
+        String fileName = getFileName(key);
+        byte[] bytes;
+        try {
+            bytes = getCipher().encrypt(entry.encode());
+            writeFile(fileName, bytes);
+        } catch (IOException | GeneralSecurityException e) {
+            removeFile(fileName);
+            return;
+        }
+        Long previous = getDiskEntries().put(fileName, (long) bytes.length);
+        diskSize += bytes.length - (previous != null ? previous : 0);
+        trimDisk();
+    }
+
+    /**
+     * Removes the entry for a key
+     *
+     * @param key The cache key
+     */
+    public synchronized void remove(String key) {
+        SPiDCacheEntry entry = memoryEntries.remove(key);
+        if (entry != null) {
+            memorySize -= entry.getSize();
+        }
+        removeFile(getFileName(key));
+    }
+
+    /**
+     * Removes all entries from memory and disk
+     */
+    public synchronized void clear() {
+        memoryEntries.clear();
+        memorySize = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        diskEntries = new LinkedHashMap<>(16, 0.75f, true);
+        diskSize = 0;
+        // No entry is encrypted with the salt any more, the next write creates a new one
+        salt = null;
+    }
+
+    private void putInMemory(String key, SPiDCacheEntry entry) {
+        SPiDCacheEntry previous = memoryEntries.remove(key);
+        if (previous != null) {
+            memorySize -= previous.getSize();
+        }
+        if (entry.getSize() > maxMemorySize) {
+            return;
+        }
+        memoryEntries.put(key, entry);
+        memorySize += entry.getSize();
+        Iterator<SPiDCacheEntry> iterator = memoryEntries.values().iterator();
+        while (memorySize > maxMemorySize && iterator.hasNext()) {
+            memorySize -= iterator.next().getSize();
+            iterator.remove();
+        }
+    }
+
+    private void trimDisk() {
+        Iterator<Map.Entry<String, Long>> iterator = getDiskEntries().entrySet().iterator();
+        while (diskSize > maxDiskSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(directory, eldest.getKey()).delete();
+            diskSize -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * @return The files in the disk cache in access order, read from the directory on first use
+     */
+    private LinkedHashMap<String, Long> getDiskEntries() {
+        if (diskEntries == null) {
+            diskEntries = new LinkedHashMap<>(16, 0.75f, true);
+            diskSize = 0;
+            File[] files = directory.listFiles();
+            if (files != null) {
+                Arrays.sort(files, new Comparator<File>() {
+                    @Override
+                    public int compare(File first, File second) {
+                        long difference = first.lastModified() - second.lastModified();
+                        return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+                    }
+                });
+                for (File file : files) {
+                    if (file.getName().endsWith(ENTRY_SUFFIX)) {
+                        diskEntries.put(file.getName(), file.length());
+                        diskSize += file.length();
+                    } else if (!file.getName().equals(SALT_FILE)) {
+                        file.delete();
+                    }
+                }
+            }
+        }
+        return diskEntries;
+    }
+
+    private SPiDKeychainCipher getCipher() throws IOException, GeneralSecurityException {
+        if (salt == null) {
+            File file = new File(directory, SALT_FILE);
+            if (file.exists()) {
+                salt = new String(readFile(file), SALT_CHARSET);
+            } else {
+                String created = SPiDKeychainCipher.createSalt();
+                writeFile(SALT_FILE, created.getBytes(SALT_CHARSET));
+                salt = created;
+            }
+        }
+        return SPiDKeychainCipher.getInstance(encryptionKey, salt);
+    }
+
+    private void removeFile(String fileName) {
+        Long size = getDiskEntries().remove(fileName);
+        if (size != null) {
+            diskSize -= size;
+        }
+        new File(directory, fileName).delete();
+    }
+
+    private void writeFile(String fileName, byte[] bytes) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        File tempFile = new File(directory, fileName + TEMP_SUFFIX);
+        FileOutputStream output = new FileOutputStream(tempFile);
+        try {
+            output.write(bytes);
+        } finally {
+            output.close();
+        }
+        if (!tempFile.renameTo(new File(directory, fileName))) {
+            tempFile.delete();
+            throw new IOException("Could not rename " + tempFile);
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        FileInputStream input = new FileInputStream(file);
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            input.close();
+        }
+    }
+
+    private static String getFileName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return SPiDUtils.byteArrayToHexString(digest.digest(key.getBytes("UTF-8"))) + ENTRY_SUFFIX;
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            // SHA-1 and UTF-8 are always available
+            throw new IllegalStateException("Could not create cache file name", e);
+        }
+    }
+}
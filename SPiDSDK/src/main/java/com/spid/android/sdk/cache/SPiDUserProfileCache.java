@@ -0,0 +1,175 @@
+package com.spid.android.sdk.cache;
+
+import com.spid.android.sdk.keychain.SPiDFileTokenStore;
+import com.spid.android.sdk.keychain.SPiDKeychainCipher;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the last known user profile so it can be shown before the profile has been fetched. The snapshot is
+ * encrypted on disk and only returned for the user it was stored for. The key is derived with a random salt that is
+ * created on the first write and stored in front of the encrypted snapshot.
+ */
+public class SPiDUserProfileCache {
+
+    private static final int VERSION = 1;
+
+    private final SPiDFileTokenStore store;
+    private final String encryptionKey;
+    private final Executor diskExecutor;
+
+    private boolean loaded;
+    private String userId;
+    private byte[] profile;
+    private String salt;
+
+    /**
+     * Constructor for SPiDUserProfileCache
+     *
+     * @param file          File holding the encrypted snapshot
+     * @param encryptionKey Key used to encrypt the snapshot
+     * @param diskExecutor  Executor for disk writes
+     */
+    public SPiDUserProfileCache(File file, String encryptionKey, Executor diskExecutor) {
+        this.store = new SPiDFileTokenStore(file);
+        this.encryptionKey = encryptionKey;
+        this.diskExecutor = diskExecutor;
+    }
+
+    /**
+     * @param userId The current user id
+     * @return The last known profile for the user, <code>null</code> if there is none
+     */
+    public synchronized byte[] get(String userId) {
+        if (!loaded) {
+            load();
+        }
+        if (profile == null || userId == null || !userId.equals(this.userId)) {
+            return null;
+        }
+        return profile;
+    }
+
+    /**
+     * Replaces the snapshot, the snapshot is written to disk in the background
+     *
+     * @param userId  The user the profile belongs to
+     * @param profile The profile response body
+     * @return <code>true</code> if the profile differs from the previous snapshot
+     */
+    public synchronized boolean put(String userId, byte[] profile) {
+        boolean changed = !Arrays.equals(profile, get(userId));
+        if (changed) {
+            this.userId = userId;
+            this.profile = profile;
+            final byte[] record = encode(userId, profile);
+            diskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    save(record);
+                }
+            });
+        }
+        return changed;
+    }
+
+    /**
+     * Removes the snapshot, the file is removed in the background
+     */
+    public synchronized void clear() {
+        loaded = true;
+        userId = null;
+        profile = null;
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    store.clear();
+                } catch (IOException e) {
+                    // The snapshot is only used for the user it was stored for
+                }
+            }
+        });
+    }
+
+    private void load() {
+        loaded = true;
+        try {
+            byte[] record = store.load();
+            if (record == null) {
+                return;
+            }
+            DataInputStream header = new DataInputStream(new ByteArrayInputStream(record));
+            String storedSalt = header.readUTF();
+            byte[] encrypted = new byte[header.available()];
+            header.readFully(encrypted);
+            // Keep the salt even if the snapshot cannot be read, the next write replaces the snapshot
+            salt = storedSalt;
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(getCipher(storedSalt).decrypt(encrypted)));
+            if (input.readUnsignedByte() != VERSION) {
+                return;
+            }
+            String storedUserId = input.readUTF();
+            byte[] storedProfile = new byte[input.readInt()];
+            input.readFully(storedProfile);
+            userId = storedUserId;
+            profile = storedProfile;
+        } catch (IOException | GeneralSecurityException e) {
+            userId = null;
+            profile = null;
+        }
+    }
+
+    private void save(byte[] record) {
+        try {
+            String recordSalt;
+            synchronized (this) {
+                // A clear or newer snapshot may have replaced this one
+                if (profile == null) {
+                    return;
+                }
+                if (salt == null) {
+                    salt = SPiDKeychainCipher.createSalt();
+                }
+                recordSalt = salt;
+            }
+            byte[] encrypted = getCipher(recordSalt).encrypt(record);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(encrypted.length + SPiDKeychainCipher.SALT_SIZE + 2);
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeUTF(recordSalt);
+            output.write(encrypted);
+            output.flush();
+            store.save(bytes.toByteArray());
+        } catch (IOException | GeneralSecurityException e) {
+            // The snapshot is rebuilt on the next successful fetch
+        }
+    }
+
+    private SPiDKeychainCipher getCipher(String salt) throws GeneralSecurityException {
+        return SPiDKeychainCipher.getInstance(encryptionKey, salt);
+    }
+
+    private static byte[] encode(String userId, byte[] profile) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(profile.length + 64);
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            output.writeByte(VERSION);
+            output.writeUTF(userId);
+            output.writeInt(profile.length);
+            output.write(profile);
+            output.flush();
+        } catch (IOException e) {
+            // Shouldn't be possible writing to memory...
+            throw new IllegalStateException("Could not encode user profile", e);
+        }
+        return bytes.toByteArray();
+    }
+}
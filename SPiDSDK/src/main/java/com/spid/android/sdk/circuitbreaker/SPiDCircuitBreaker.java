@@ -0,0 +1,174 @@
+package com.spid.android.sdk.circuitbreaker;
+
+import com.spid.android.sdk.listener.SPiDCircuitBreakerListener;
+
+/**
+ * Circuit breaker for one endpoint. The breaker opens when the failure rate over the latest calls reaches the
+ * threshold and then fails fast. After the open duration a limited number of probe requests are let through, a
+ * successful probe closes the breaker and a failed probe opens it again.
+ */
+public class SPiDCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String endpoint;
+    private final SPiDCircuitBreakerPolicy policy;
+    private final SPiDCircuitBreakerListener listener;
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int calls;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probes;
+
+    /**
+     * Constructor for SPiDCircuitBreaker
+     *
+     * @param endpoint The endpoint the breaker guards
+     * @param policy   The circuit breaker policy
+     * @param listener Called on state changes, can be <code>null</code>
+     */
+    public SPiDCircuitBreaker(String endpoint, SPiDCircuitBreakerPolicy policy, SPiDCircuitBreakerListener listener) {
+        this.endpoint = endpoint;
+        this.policy = policy;
+        this.listener = listener;
+        this.window = new boolean[policy.getWindowSize()];
+    }
+
+    /**
+     * Checks if a request may be sent, must be followed by {@link #onSuccess(long)}, {@link #onFailure(long)} or
+     * {@link #onCancelled()} if it returns <code>true</code>
+     *
+     * @param now The current time in milliseconds
+     * @return <code>false</code> if the request should fail fast
+     */
+    public boolean allowRequest(long now) {
+        boolean halfOpened = false;
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (now - openedAt < policy.getOpenDuration()) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probes = 0;
+                halfOpened = true;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probes >= policy.getHalfOpenProbes()) {
+                    return false;
+                }
+                probes++;
+            }
+        }
+        if (halfOpened) {
+            notifyStateChanged(State.HALF_OPEN);
+        }
+        return true;
+    }
+
+    /**
+     * Records a successful request
+     *
+     * @param now The current time in milliseconds
+     */
+    public void onSuccess(long now) {
+        State changed = record(false, now);
+        if (changed != null) {
+            notifyStateChanged(changed);
+        }
+    }
+
+    /**
+     * Records a failed request, i.e. one that did not reach SPiD or got a 5xx response
+     *
+     * @param now The current time in milliseconds
+     */
+    public void onFailure(long now) {
+        State changed = record(true, now);
+        if (changed != null) {
+            notifyStateChanged(changed);
+        }
+    }
+
+    /**
+     * Releases the slot of a request that was cancelled before it got an answer or was never sent, without
+     * recording an outcome
+     */
+    public synchronized void onCancelled() {
+        if (state == State.HALF_OPEN && probes > 0) {
+            probes--;
+        }
+    }
+
+    /**
+     * @return The current state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return The endpoint the breaker guards
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return The new state, <code>null</code> if the state did not change
+     */
+    private synchronized State record(boolean failure, long now) {
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                open(now);
+                return State.OPEN;
+            }
+            resetWindow();
+            state = State.CLOSED;
+            return State.CLOSED;
+        }
+        if (state == State.OPEN) {
+            // Outcome of a request sent before the breaker opened
+            return null;
+        }
+        if (calls == window.length && window[windowIndex]) {
+            failures--;
+        }
+        window[windowIndex] = failure;
+        windowIndex = (windowIndex + 1) % window.length;
+        calls = Math.min(calls + 1, window.length);
+        if (failure) {
+            failures++;
+        }
+        if (calls >= policy.getMinimumCalls() && failures >= policy.getFailureRateThreshold() * calls) {
+            open(now);
+            return State.OPEN;
+        }
+        return null;
+    }
+
+    private void open(long now) {
+        resetWindow();
+        state = State.OPEN;
+        openedAt = now;
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    private void notifyStateChanged(State newState) {
+        if (listener != null) {
+            listener.onStateChanged(endpoint, newState);
+        }
+    }
+}
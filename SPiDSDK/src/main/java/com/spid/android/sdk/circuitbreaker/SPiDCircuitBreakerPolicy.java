@@ -0,0 +1,60 @@
+package com.spid.android.sdk.circuitbreaker;
+
+/**
+ * When a circuit breaker opens and how it recovers
+ */
+public class SPiDCircuitBreakerPolicy {
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final long openDuration;
+    private final int halfOpenProbes;
+
+    /**
+     * Constructor for SPiDCircuitBreakerPolicy
+     *
+     * @param windowSize           Number of latest calls the failure rate is calculated over
+     * @param minimumCalls         Minimum number of calls in the window before the breaker can open
+     * @param failureRateThreshold Failure rate between 0 and 1 at which the breaker opens
+     * @param openDuration         Time in milliseconds the breaker fails fast before probe requests are let through
+     * @param halfOpenProbes       Number of probe requests let through at a time while half-open
+     */
+    public SPiDCircuitBreakerPolicy(int windowSize, int minimumCalls, float failureRateThreshold, long openDuration,
+                                    int halfOpenProbes) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("MinimumCalls must be between 1 and windowSize");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("FailureRateThreshold must be above 0 and at most 1");
+        }
+        if (openDuration < 0 || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("OpenDuration must not be negative and halfOpenProbes must be at least 1");
+        }
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public long getOpenDuration() {
+        return openDuration;
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.spid.android.sdk.circuitbreaker;
+
+import com.spid.android.sdk.listener.SPiDCircuitBreakerListener;
+import com.spid.android.sdk.utils.SPiDUrl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The circuit breakers for all endpoints, keyed by path template so that e.g. all <code>/user/{id}</code> requests
+ * share a breaker
+ */
+public class SPiDCircuitBreakers {
+
+    private final ConcurrentMap<String, SPiDCircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final SPiDCircuitBreakerPolicy policy;
+    private final SPiDCircuitBreakerListener listener;
+
+    /**
+     * Constructor for SPiDCircuitBreakers
+     *
+     * @param policy   The policy for every breaker
+     * @param listener Called on state changes, can be <code>null</code>
+     */
+    public SPiDCircuitBreakers(SPiDCircuitBreakerPolicy policy, SPiDCircuitBreakerListener listener) {
+        this.policy = policy;
+        this.listener = listener;
+    }
+
+    /**
+     * @param url The request url, with or without query
+     * @return The circuit breaker for the endpoint of the url
+     */
+    public SPiDCircuitBreaker get(String url) {
+        String endpoint = SPiDUrl.getEndpoint(url);
+        SPiDCircuitBreaker breaker = breakers.get(endpoint);
+        if (breaker == null) {
+            SPiDCircuitBreaker created = new SPiDCircuitBreaker(endpoint, policy, listener);
+            breaker = breakers.putIfAbsent(endpoint, created);
+            if (breaker == null) {
+                breaker = created;
+            }
+        }
+        return breaker;
+    }
+}
@@ -2,6 +2,12 @@ package com.spid.android.sdk.configuration;
 
 import android.content.Context;
 
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreakerPolicy;
+import com.spid.android.sdk.http.SPiDHttpTransport;
+import com.spid.android.sdk.keychain.SPiDTokenStore;
+import com.spid.android.sdk.ratelimit.SPiDRateLimit;
+import com.spid.android.sdk.retry.SPiDRetryPolicy;
+
 /**
  * Contains a configuration for the SPiD SDK
  */
@@ -25,6 +31,22 @@ public class SPiDConfiguration {
     private String serverClientID;
     private String serverRedirectUri;
     private String apiVersion;
+    private int maxConnections;
+    private long connectionKeepAlive;
+    private SPiDHttpTransport httpTransport;
+    private int maxConcurrentRequests;
+    private int maxBackgroundRequests;
+    private boolean proactiveTokenRefresh;
+    private float tokenRefreshFraction;
+    private long tokenExpiryMargin;
+    private SPiDTokenStore tokenStore;
+    private long responseCacheSize;
+    private boolean cacheUserProfile;
+    private boolean persistentRequestQueue;
+    private SPiDRetryPolicy retryPolicy;
+    private SPiDCircuitBreakerPolicy circuitBreakerPolicy;
+    private SPiDRateLimit tokenRateLimit;
+    private SPiDRateLimit apiRateLimit;
 
     /**
      * Constructor for SPiDConfiguration object.
@@ -275,4 +297,228 @@ public class SPiDConfiguration {
     public void setContext(Context context) {
         this.context = context;
     }
+
+    /**
+     * @return Maximum number of pooled http connections, default value: <code>4</code>
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @param maxConnections Maximum number of pooled http connections
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * @return Time in milliseconds an idle http connection is kept alive for reuse, default value: <code>30000</code>
+     */
+    public long getConnectionKeepAlive() {
+        return connectionKeepAlive;
+    }
+
+    /**
+     * @param connectionKeepAlive Time in milliseconds an idle http connection is kept alive for reuse
+     */
+    public void setConnectionKeepAlive(long connectionKeepAlive) {
+        this.connectionKeepAlive = connectionKeepAlive;
+    }
+
+    /**
+     * @return Http transport used for all requests, <code>null</code> if the default pooled Apache transport should be used
+     */
+    public SPiDHttpTransport getHttpTransport() {
+        return httpTransport;
+    }
+
+    /**
+     * @param httpTransport Http transport used for all requests
+     */
+    public void setHttpTransport(SPiDHttpTransport httpTransport) {
+        this.httpTransport = httpTransport;
+    }
+
+    /**
+     * @return Maximum number of requests running at the same time, default value: <code>4</code>
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * @param maxConcurrentRequests Maximum number of requests running at the same time
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * @return Maximum number of background requests running at the same time, default value: <code>2</code>
+     */
+    public int getMaxBackgroundRequests() {
+        return maxBackgroundRequests;
+    }
+
+    /**
+     * @param maxBackgroundRequests Maximum number of background requests running at the same time
+     */
+    public void setMaxBackgroundRequests(int maxBackgroundRequests) {
+        this.maxBackgroundRequests = maxBackgroundRequests;
+    }
+
+    /**
+     * @return Refresh the access token in the background before it expires, default value: <code>false</code>
+     */
+    public boolean isProactiveTokenRefresh() {
+        return proactiveTokenRefresh;
+    }
+
+    /**
+     * @param proactiveTokenRefresh Refresh the access token in the background before it expires
+     */
+    public void setProactiveTokenRefresh(boolean proactiveTokenRefresh) {
+        this.proactiveTokenRefresh = proactiveTokenRefresh;
+    }
+
+    /**
+     * @return Fraction of the access token lifetime after which it is refreshed in the background, default value: <code>0.8</code>
+     */
+    public float getTokenRefreshFraction() {
+        return tokenRefreshFraction;
+    }
+
+    /**
+     * @param tokenRefreshFraction Fraction of the access token lifetime after which it is refreshed in the background
+     */
+    public void setTokenRefreshFraction(float tokenRefreshFraction) {
+        this.tokenRefreshFraction = tokenRefreshFraction;
+    }
+
+    /**
+     * @return Time in milliseconds before expiry when the access token is treated as expired, default value: <code>30000</code>
+     */
+    public long getTokenExpiryMargin() {
+        return tokenExpiryMargin;
+    }
+
+    /**
+     * @param tokenExpiryMargin Time in milliseconds before expiry when the access token is treated as expired
+     */
+    public void setTokenExpiryMargin(long tokenExpiryMargin) {
+        this.tokenExpiryMargin = tokenExpiryMargin;
+    }
+
+    /**
+     * @return Storage for the encrypted access token, <code>null</code> if SharedPreferences should be used
+     */
+    public SPiDTokenStore getTokenStore() {
+        return tokenStore;
+    }
+
+    /**
+     * @param tokenStore Storage for the encrypted access token
+     */
+    public void setTokenStore(SPiDTokenStore tokenStore) {
+        this.tokenStore = tokenStore;
+    }
+
+    /**
+     * @return Maximum size in bytes of the disk cache for API GET responses, <code>0</code> disables the cache, default value: <code>0</code>
+     */
+    public long getResponseCacheSize() {
+        return responseCacheSize;
+    }
+
+    /**
+     * @param responseCacheSize Maximum size in bytes of the disk cache for API GET responses
+     */
+    public void setResponseCacheSize(long responseCacheSize) {
+        this.responseCacheSize = responseCacheSize;
+    }
+
+    /**
+     * @return <code>true</code> if the current user profile is persisted and returned before it has been fetched, default value: <code>false</code>
+     */
+    public boolean isCacheUserProfile() {
+        return cacheUserProfile;
+    }
+
+    /**
+     * @param cacheUserProfile Persist the current user profile and return it before it has been fetched
+     */
+    public void setCacheUserProfile(boolean cacheUserProfile) {
+        this.cacheUserProfile = cacheUserProfile;
+    }
+
+    /**
+     * @return <code>true</code> if durable requests are stored and replayed until the server has answered them, default value: <code>false</code>
+     */
+    public boolean isPersistentRequestQueue() {
+        return persistentRequestQueue;
+    }
+
+    /**
+     * @param persistentRequestQueue Store durable requests and replay them until the server has answered them
+     */
+    public void setPersistentRequestQueue(boolean persistentRequestQueue) {
+        this.persistentRequestQueue = persistentRequestQueue;
+    }
+
+    /**
+     * @return Retry policy for requests without their own policy, default value: {@link SPiDRetryPolicy#NONE}
+     */
+    public SPiDRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * @param retryPolicy Retry policy for requests without their own policy
+     */
+    public void setRetryPolicy(SPiDRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @return Policy for the per endpoint circuit breakers, <code>null</code> disables them, default value: <code>null</code>
+     */
+    public SPiDCircuitBreakerPolicy getCircuitBreakerPolicy() {
+        return circuitBreakerPolicy;
+    }
+
+    /**
+     * @param circuitBreakerPolicy Policy for the per endpoint circuit breakers
+     */
+    public void setCircuitBreakerPolicy(SPiDCircuitBreakerPolicy circuitBreakerPolicy) {
+        this.circuitBreakerPolicy = circuitBreakerPolicy;
+    }
+
+    /**
+     * @return Client side rate limit for the OAuth token endpoint, <code>null</code> for no limit, default value: <code>null</code>
+     */
+    public SPiDRateLimit getTokenRateLimit() {
+        return tokenRateLimit;
+    }
+
+    /**
+     * @param tokenRateLimit Client side rate limit for the OAuth token endpoint
+     */
+    public void setTokenRateLimit(SPiDRateLimit tokenRateLimit) {
+        this.tokenRateLimit = tokenRateLimit;
+    }
+
+    /**
+     * @return Client side rate limit for the API, <code>null</code> for no limit, default value: <code>null</code>
+     */
+    public SPiDRateLimit getApiRateLimit() {
+        return apiRateLimit;
+    }
+
+    /**
+     * @param apiRateLimit Client side rate limit for the API
+     */
+    public void setApiRateLimit(SPiDRateLimit apiRateLimit) {
+        this.apiRateLimit = apiRateLimit;
+    }
 }
@@ -10,7 +10,12 @@ import android.text.TextUtils;
 
 import com.spid.android.sdk.BuildConfig;
 import com.spid.android.sdk.SPiDClient;
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreakerPolicy;
+import com.spid.android.sdk.http.SPiDHttpTransport;
+import com.spid.android.sdk.keychain.SPiDTokenStore;
 import com.spid.android.sdk.logger.SPiDLogger;
+import com.spid.android.sdk.ratelimit.SPiDRateLimit;
+import com.spid.android.sdk.retry.SPiDRetryPolicy;
 
 /**
  * Builder class for SPiDConfiguration
@@ -33,6 +38,22 @@ public class SPiDConfigurationBuilder {
     private String serverClientID;
     private String serverRedirectUri;
     private String apiVersion = "2";
+    private int maxConnections = 4;
+    private long connectionKeepAlive = 30 * 1000;
+    private SPiDHttpTransport httpTransport;
+    private int maxConcurrentRequests = 4;
+    private int maxBackgroundRequests = 2;
+    private boolean proactiveTokenRefresh = false;
+    private float tokenRefreshFraction = 0.8f;
+    private long tokenExpiryMargin = 30 * 1000;
+    private SPiDTokenStore tokenStore;
+    private long responseCacheSize = 0;
+    private boolean cacheUserProfile = false;
+    private boolean persistentRequestQueue = false;
+    private SPiDRetryPolicy retryPolicy = SPiDRetryPolicy.NONE;
+    private SPiDCircuitBreakerPolicy circuitBreakerPolicy;
+    private SPiDRateLimit tokenRateLimit;
+    private SPiDRateLimit apiRateLimit;
 
     public SPiDConfigurationBuilder(Context context, SPiDEnvironment spidEnvironment, String clientID, String clientSecret, String appURLScheme) {
         this.context = context;
@@ -141,6 +162,165 @@ public class SPiDConfigurationBuilder {
         return this;
     }
 
+    /**
+     * @param maxConnections Maximum number of pooled http connections, default is <code>4</code>
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder maxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    /**
+     * @param connectionKeepAlive Time in milliseconds an idle http connection is kept alive for reuse, default is <code>30000</code>
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder connectionKeepAlive(long connectionKeepAlive) {
+        this.connectionKeepAlive = connectionKeepAlive;
+        return this;
+    }
+
+    /**
+     * @param httpTransport Http transport used for all requests, e.g. <code>SPiDUrlConnectionTransport</code>. Default is a pooled Apache transport
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder httpTransport(SPiDHttpTransport httpTransport) {
+        this.httpTransport = httpTransport;
+        return this;
+    }
+
+    /**
+     * @param maxConcurrentRequests Maximum number of requests running at the same time, default is <code>4</code>
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder maxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        return this;
+    }
+
+    /**
+     * Background requests are only started when no critical or interactive request is waiting, and at most this many
+     * run at the same time so that foreground requests always find a free slot. Capped at one less than
+     * {@link #maxConcurrentRequests(int)} unless that is <code>1</code>. Default is <code>2</code>
+     *
+     * @param maxBackgroundRequests Maximum number of background requests running at the same time
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder maxBackgroundRequests(int maxBackgroundRequests) {
+        this.maxBackgroundRequests = maxBackgroundRequests;
+        return this;
+    }
+
+    /**
+     * @param proactiveTokenRefresh Refresh the access token in the background before it expires, default is <code>false</code>
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder proactiveTokenRefresh(boolean proactiveTokenRefresh) {
+        this.proactiveTokenRefresh = proactiveTokenRefresh;
+        return this;
+    }
+
+    /**
+     * @param tokenRefreshFraction Fraction of the access token lifetime after which it is refreshed in the background, default is <code>0.8</code>
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder tokenRefreshFraction(float tokenRefreshFraction) {
+        this.tokenRefreshFraction = tokenRefreshFraction;
+        return this;
+    }
+
+    /**
+     * @param tokenExpiryMargin Time in milliseconds before expiry when the access token is treated as expired and
+     *                          requests wait for a refresh, allows for clock skew. Default is <code>30000</code>
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder tokenExpiryMargin(long tokenExpiryMargin) {
+        this.tokenExpiryMargin = tokenExpiryMargin;
+        return this;
+    }
+
+    /**
+     * @param tokenStore Storage for the encrypted access token, e.g. <code>SPiDFileTokenStore</code>. Default is SharedPreferences
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder tokenStore(SPiDTokenStore tokenStore) {
+        this.tokenStore = tokenStore;
+        return this;
+    }
+
+    /**
+     * @param responseCacheSize Maximum size in bytes of the disk cache for API GET responses, responses are revalidated
+     *                          with ETag/Last-Modified and Cache-Control is honored. Default is <code>0</code>, which disables the cache
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder responseCacheSize(long responseCacheSize) {
+        this.responseCacheSize = responseCacheSize;
+        return this;
+    }
+
+    /**
+     * @param cacheUserProfile Persist the current user profile encrypted, so that <code>SPiDClient.getCurrentUser</code>
+     *                         can return the last known profile immediately and report changes once it has been fetched. Default is <code>false</code>
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder cacheUserProfile(boolean cacheUserProfile) {
+        this.cacheUserProfile = cacheUserProfile;
+        return this;
+    }
+
+    /**
+     * @param persistentRequestQueue Store durable requests, e.g. <code>SPiDClient.acceptAgreements</code>, so that they
+     *                               are replayed with the same idempotency key when a valid access token and connectivity
+     *                               are available, also after the process has died. Default is <code>false</code>
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder persistentRequestQueue(boolean persistentRequestQueue) {
+        this.persistentRequestQueue = persistentRequestQueue;
+        return this;
+    }
+
+    /**
+     * @param retryPolicy Retry policy for requests that failed without an answer from SPiD or with a 429 or 5xx response,
+     *                    only GET requests and requests with an idempotency key are retried. Can be overridden per
+     *                    request. Default is {@link SPiDRetryPolicy#NONE}
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder retryPolicy(SPiDRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * @param circuitBreakerPolicy Policy for circuit breakers per endpoint path template, an open breaker fails
+     *                             requests fast with <code>SPiDCircuitOpenException</code>, state changes are reported
+     *                             to <code>SPiDClient.setCircuitBreakerListener</code>. Default is <code>null</code>, which disables the breakers
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder circuitBreakerPolicy(SPiDCircuitBreakerPolicy circuitBreakerPolicy) {
+        this.circuitBreakerPolicy = circuitBreakerPolicy;
+        return this;
+    }
+
+    /**
+     * @param tokenRateLimit Client side token bucket for the OAuth token endpoint, requests over the limit fail fast
+     *                       with <code>SPiDRateLimitException</code>. Default is <code>null</code>, which disables the limit
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder tokenRateLimit(SPiDRateLimit tokenRateLimit) {
+        this.tokenRateLimit = tokenRateLimit;
+        return this;
+    }
+
+    /**
+     * @param apiRateLimit Client side token bucket for the API, requests over the limit fail fast with
+     *                     <code>SPiDRateLimitException</code>. Default is <code>null</code>, which disables the limit
+     * @return The SPiDConfigurationBuilder
+     */
+    public SPiDConfigurationBuilder apiRateLimit(SPiDRateLimit apiRateLimit) {
+        this.apiRateLimit = apiRateLimit;
+        return this;
+    }
+
     /**
      * Checks that supplied string is not empty, otherwise throws exception
      *
@@ -240,9 +420,33 @@ public class SPiDConfigurationBuilder {
             serverRedirectUri = redirectURL;
         }
 
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("MaxConnections must be at least 1");
+        }
+
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("MaxConcurrentRequests must be at least 1");
+        }
+
+        if (maxBackgroundRequests < 1) {
+            throw new IllegalArgumentException("MaxBackgroundRequests must be at least 1");
+        }
+
+        if (retryPolicy == null) {
+            throw new IllegalArgumentException("RetryPolicy must not be null, use SPiDRetryPolicy.NONE to disable retries");
+        }
+
+        if (responseCacheSize < 0) {
+            throw new IllegalArgumentException("ResponseCacheSize must not be negative");
+        }
+
+        if (tokenRefreshFraction <= 0 || tokenRefreshFraction >= 1) {
+            throw new IllegalArgumentException("TokenRefreshFraction must be between 0 and 1");
+        }
+
         String userAgent = getUserAgent();
 
-        return new SPiDConfiguration(
+        SPiDConfiguration configuration = new SPiDConfiguration(
                 clientID,
                 clientSecret,
                 signSecret,
@@ -259,5 +463,22 @@ public class SPiDConfigurationBuilder {
                 debugMode,
                 userAgent,
                 context);
+        configuration.setMaxConnections(maxConnections);
+        configuration.setConnectionKeepAlive(connectionKeepAlive);
+        configuration.setHttpTransport(httpTransport);
+        configuration.setMaxConcurrentRequests(maxConcurrentRequests);
+        configuration.setMaxBackgroundRequests(maxBackgroundRequests);
+        configuration.setProactiveTokenRefresh(proactiveTokenRefresh);
+        configuration.setTokenRefreshFraction(tokenRefreshFraction);
+        configuration.setTokenExpiryMargin(tokenExpiryMargin);
+        configuration.setTokenStore(tokenStore);
+        configuration.setResponseCacheSize(responseCacheSize);
+        configuration.setCacheUserProfile(cacheUserProfile);
+        configuration.setPersistentRequestQueue(persistentRequestQueue);
+        configuration.setRetryPolicy(retryPolicy);
+        configuration.setCircuitBreakerPolicy(circuitBreakerPolicy);
+        configuration.setTokenRateLimit(tokenRateLimit);
+        configuration.setApiRateLimit(apiRateLimit);
+        return configuration;
     }
 }
@@ -0,0 +1,26 @@
+package com.spid.android.sdk.exceptions;
+
+/**
+ * Signals that a request was not sent since the circuit breaker for its endpoint is open
+ */
+public class SPiDCircuitOpenException extends SPiDException {
+
+    private final String endpoint;
+
+    /**
+     * Constructs a new SPiDCircuitOpenException for the specified endpoint.
+     *
+     * @param endpoint The endpoint, e.g. <code>https://login.schibsted.com/api/{id}/user/{id}</code>
+     */
+    public SPiDCircuitOpenException(String endpoint) {
+        super("Circuit breaker is open for " + endpoint);
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @return The endpoint with an open circuit breaker
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,28 @@
+package com.spid.android.sdk.exceptions;
+
+/**
+ * Signals that a request was not sent since its endpoint is rate limited, either by the client side rate limit or
+ * by a Retry-After from SPiD
+ */
+public class SPiDRateLimitException extends SPiDException {
+
+    private final long retryAfter;
+
+    /**
+     * Constructs a new SPiDRateLimitException for the specified endpoint.
+     *
+     * @param endpoint   The rate limited endpoint
+     * @param retryAfter Time in milliseconds until the endpoint can be called again
+     */
+    public SPiDRateLimitException(String endpoint, long retryAfter) {
+        super("Rate limited for " + retryAfter + " ms: " + endpoint);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return Time in milliseconds until the endpoint can be called again
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,149 @@
+package com.spid.android.sdk.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.params.HttpClientParams;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.params.HttpProtocolParams;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport using the Apache http client, keeps connections alive in a pool so that
+ * consecutive requests to the same host can reuse an already established TCP/TLS connection
+ */
+public class SPiDApacheHttpTransport implements SPiDHttpTransport {
+
+    private static final int CONNECTION_TIMEOUT = 60 * 1000;
+    private static final int SOCKET_TIMEOUT = 60 * 1000;
+    private static final int SOCKET_BUFFER_SIZE = 8192;
+
+    private final DefaultHttpClient httpClient;
+    private final long keepAliveDuration;
+
+    /**
+     * Constructor for SPiDApacheHttpTransport
+     *
+     * @param userAgent         User-Agent sent with all requests
+     * @param maxConnections    Maximum number of pooled connections
+     * @param keepAliveDuration Maximum time in milliseconds an idle connection is kept in the pool
+     */
+    public SPiDApacheHttpTransport(String userAgent, int maxConnections, long keepAliveDuration) {
+        this.keepAliveDuration = keepAliveDuration;
+
+        HttpParams params = new BasicHttpParams();
+        HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);
+        HttpProtocolParams.setUserAgent(params, userAgent);
+        HttpConnectionParams.setConnectionTimeout(params, CONNECTION_TIMEOUT);
+        HttpConnectionParams.setSoTimeout(params, SOCKET_TIMEOUT);
+        HttpConnectionParams.setSocketBufferSize(params, SOCKET_BUFFER_SIZE);
+        HttpConnectionParams.setStaleCheckingEnabled(params, true);
+        HttpClientParams.setRedirecting(params, false);
+        ConnManagerParams.setMaxTotalConnections(params, maxConnections);
+        ConnManagerParams.setMaxConnectionsPerRoute(params, new ConnPerRouteBean(maxConnections));
+
+        SchemeRegistry schemeRegistry = new SchemeRegistry();
+        schemeRegistry.register(new Scheme("http", PlainSocketFactory.getSocketFactory(), 80));
+        schemeRegistry.register(new Scheme("https", SSLSocketFactory.getSocketFactory(), 443));
+
+        ClientConnectionManager connectionManager = new ThreadSafeClientConnManager(params, schemeRegistry);
+        httpClient = new DefaultHttpClient(connectionManager, params);
+        httpClient.setKeepAliveStrategy(new KeepAliveStrategy());
+    }
+
+    @Override
+    public SPiDHttpResponse execute(SPiDHttpRequest request) throws IOException {
+        final HttpRequestBase httpRequest;
+        if (HttpPost.METHOD_NAME.equalsIgnoreCase(request.getMethod())) {
+            HttpPost httpPost = new HttpPost(request.getUrl());
+            if (request.getBody() != null) {
+                ByteArrayEntity entity = new ByteArrayEntity(request.getBody());
+                entity.setContentType(SPiDHttpRequest.FORM_CONTENT_TYPE);
+                httpPost.setEntity(entity);
+            }
+            httpRequest = httpPost;
+        } else {
+            httpRequest = new HttpGet(request.getUrl());
+        }
+
+        for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+            httpRequest.setHeader(entry.getKey(), entry.getValue());
+        }
+
+        request.setConnection(new Closeable() {
+            @Override
+            public void close() {
+                httpRequest.abort();
+            }
+        });
+        evictIdleConnections();
+        return toHttpResponse(httpClient.execute(httpRequest));
+    }
+
+    /**
+     * Converts an Apache http response to a <code>SPiDHttpResponse</code>
+     *
+     * @param httpResponse The Apache http response
+     * @return The converted response
+     * @throws IOException If the response content could not be read
+     */
+    public static SPiDHttpResponse toHttpResponse(HttpResponse httpResponse) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        for (Header header : httpResponse.getAllHeaders()) {
+            headers.put(header.getName(), header.getValue());
+        }
+        HttpEntity entity = httpResponse.getEntity();
+        InputStream content = entity != null ? entity.getContent() : null;
+        return new SPiDHttpResponse(httpResponse.getStatusLine().getStatusCode(), headers, content);
+    }
+
+    /**
+     * Closes connections that have been idle longer than the keep-alive duration
+     */
+    public void evictIdleConnections() {
+        httpClient.getConnectionManager().closeIdleConnections(keepAliveDuration, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        httpClient.getConnectionManager().shutdown();
+    }
+
+    /**
+     * Keeps connections alive for as long as the server allows, but never longer than the configured duration
+     */
+    private class KeepAliveStrategy implements ConnectionKeepAliveStrategy {
+        private final ConnectionKeepAliveStrategy serverStrategy = new DefaultConnectionKeepAliveStrategy();
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long serverDuration = serverStrategy.getKeepAliveDuration(response, context);
+            return serverDuration > 0 ? Math.min(serverDuration, keepAliveDuration) : keepAliveDuration;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.spid.android.sdk.http;
+
+import java.util.ArrayDeque;
+
+/**
+ * Small pool of byte buffers used to read response bodies, avoids allocating a new read buffer for every response
+ */
+public final class SPiDBufferPool {
+
+    public static final int BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 4;
+
+    private static final ArrayDeque<byte[]> buffers = new ArrayDeque<>(MAX_POOLED_BUFFERS);
+
+    private SPiDBufferPool() {
+    }
+
+    /**
+     * @return A buffer of {@link #BUFFER_SIZE} bytes, should be returned with {@link #release(byte[])}
+     */
+    public static byte[] acquire() {
+        synchronized (buffers) {
+            byte[] buffer = buffers.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Returns a buffer to the pool
+     *
+     * @param buffer Buffer from {@link #acquire()}
+     */
+    public static void release(byte[] buffer) {
+        if (buffer == null || buffer.length != BUFFER_SIZE) {
+            return;
+        }
+        synchronized (buffers) {
+            if (buffers.size() < MAX_POOLED_BUFFERS) {
+                buffers.push(buffer);
+            }
+        }
+    }
+}
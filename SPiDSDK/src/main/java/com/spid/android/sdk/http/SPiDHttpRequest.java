@@ -0,0 +1,110 @@
+package com.spid.android.sdk.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Contains a transport independent http request
+ */
+public class SPiDHttpRequest {
+
+    public static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded; charset=UTF-8";
+
+    private final String method;
+    private final String url;
+    private final Map<String, String> headers;
+    private final byte[] body;
+    private Closeable connection;
+    private boolean aborted;
+
+    /**
+     * Constructor for SPiDHttpRequest
+     *
+     * @param method  The http method
+     * @param url     The complete request url including query
+     * @param headers The http headers
+     * @param body    The encoded request body, <code>null</code> if there is no body
+     */
+    public SPiDHttpRequest(String method, String url, Map<String, String> headers, byte[] body) {
+        this.method = method;
+        this.url = url;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+    }
+
+    /**
+     * @return The http method
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return The complete request url including query
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return The http headers
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return The encoded request body, <code>null</code> if there is no body
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Aborts the request, a connect or read blocked in the transport fails with an <code>IOException</code>
+     */
+    public void abort() {
+        Closeable current;
+        synchronized (this) {
+            aborted = true;
+            current = connection;
+        }
+        closeQuietly(current);
+    }
+
+    /**
+     * @return <code>true</code> if the request has been aborted
+     */
+    public synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Called by the transport before it connects, closing the connection must unblock a pending connect or read
+     *
+     * @param connection Closes the underlying connection
+     * @throws IOException If the request has already been aborted, the connection is closed
+     */
+    public void setConnection(Closeable connection) throws IOException {
+        synchronized (this) {
+            if (!aborted) {
+                this.connection = connection;
+                return;
+            }
+        }
+        closeQuietly(connection);
+        throw new IOException("Request aborted");
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.spid.android.sdk.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Contains a transport independent http response
+ */
+public class SPiDHttpResponse {
+
+    public static final String DEFAULT_CHARSET = "UTF-8";
+    private static final byte[] EMPTY = new byte[0];
+
+    private final int code;
+    private final Map<String, String> headers;
+    private final InputStream content;
+
+    /**
+     * Constructor for SPiDHttpResponse
+     *
+     * @param code    The http status code
+     * @param headers The http headers
+     * @param content The response body, can be <code>null</code>
+     */
+    public SPiDHttpResponse(int code, Map<String, String> headers, InputStream content) {
+        this.code = code;
+        this.headers = headers;
+        this.content = content;
+    }
+
+    /**
+     * @return The http status code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return The http headers
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return The response body, can be <code>null</code>
+     */
+    public InputStream getContent() {
+        return content;
+    }
+
+    /**
+     * @param name Header name, case insensitive
+     * @return The header value, <code>null</code> if the header is missing
+     */
+    public String getHeader(String name) {
+        if (headers == null) {
+            return null;
+        }
+        String value = headers.get(name);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The declared content length, <code>-1</code> if unknown
+     */
+    public long getContentLength() {
+        String contentLength = getHeader("Content-Length");
+        if (contentLength != null) {
+            try {
+                return Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                // unknown length
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The charset declared in the content type, {@link #DEFAULT_CHARSET} if none is declared
+     */
+    public String getCharset() {
+        String contentType = getHeader("Content-Type");
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                String trimmed = parameter.trim();
+                if (trimmed.regionMatches(true, 0, "charset=", 0, 8) && trimmed.length() > 8) {
+                    return trimmed.substring(8).replace("\"", "").trim();
+                }
+            }
+        }
+        return DEFAULT_CHARSET;
+    }
+
+    /**
+     * Reads the whole response body using pooled buffers, a declared content length is read straight into
+     * an array of that size
+     *
+     * @return The response body, an empty array if there is no body
+     * @throws IOException If the body could not be read
+     */
+    public byte[] readContent() throws IOException {
+        if (content == null) {
+            return EMPTY;
+        }
+        long contentLength = getContentLength();
+        if (contentLength == 0) {
+            return EMPTY;
+        }
+        if (contentLength > 0 && contentLength <= Integer.MAX_VALUE) {
+            byte[] bytes = new byte[(int) contentLength];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = content.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    return Arrays.copyOf(bytes, offset);
+                }
+                offset += read;
+            }
+            return bytes;
+        }
+
+        byte[] buffer = SPiDBufferPool.acquire();
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(SPiDBufferPool.BUFFER_SIZE);
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            SPiDBufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Closes the response body, this releases the underlying connection
+     */
+    public void close() {
+        if (content != null) {
+            try {
+                content.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.spid.android.sdk.http;
+
+import java.io.IOException;
+
+/**
+ * Transport used by <code>SPiDRequest</code> to send http requests to SPiD
+ */
+public interface SPiDHttpTransport {
+
+    /**
+     * Executes a request, the returned response must be closed by the caller when the content has been read
+     *
+     * @param request The request to execute
+     * @return The http response
+     * @throws IOException If the request could not be executed
+     */
+    public SPiDHttpResponse execute(SPiDHttpRequest request) throws IOException;
+
+    /**
+     * Releases all resources held by the transport, the transport can not be used after this
+     */
+    public void shutdown();
+}
@@ -0,0 +1,101 @@
+package com.spid.android.sdk.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process transport that never touches the network, responses are produced by a <code>Handler</code>.
+ * Useful for tests and for benchmarking the request pipeline on a plain JVM.
+ */
+public class SPiDInMemoryHttpTransport implements SPiDHttpTransport {
+
+    /**
+     * Produces responses for the in-memory transport
+     */
+    public interface Handler {
+
+        /**
+         * @param request The executed request
+         * @return The response for the request
+         * @throws IOException To simulate a transport failure
+         */
+        public SPiDHttpResponse handle(SPiDHttpRequest request) throws IOException;
+    }
+
+    private final Handler handler;
+    private final List<SPiDHttpRequest> requests = new ArrayList<>();
+
+    /**
+     * Constructor for SPiDInMemoryHttpTransport
+     *
+     * @param handler Produces the responses
+     */
+    public SPiDInMemoryHttpTransport(Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Creates a transport that answers every request with the same response
+     *
+     * @param code The http status code
+     * @param body The response body
+     * @return The transport
+     */
+    public static SPiDInMemoryHttpTransport withResponse(final int code, final String body) {
+        return new SPiDInMemoryHttpTransport(new Handler() {
+            @Override
+            public SPiDHttpResponse handle(SPiDHttpRequest request) throws IOException {
+                return createResponse(code, body);
+            }
+        });
+    }
+
+    /**
+     * Creates a JSON response
+     *
+     * @param code The http status code
+     * @param body The response body
+     * @return The response
+     */
+    public static SPiDHttpResponse createResponse(int code, String body) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json; charset=utf-8");
+        try {
+            return new SPiDHttpResponse(code, headers, new ByteArrayInputStream(body.getBytes("UTF-8")));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 not supported", e);
+        }
+    }
+
+    @Override
+    public SPiDHttpResponse execute(SPiDHttpRequest request) throws IOException {
+        synchronized (requests) {
+            requests.add(request);
+        }
+        if (request.isAborted()) {
+            throw new IOException("Request aborted");
+        }
+        return handler.handle(request);
+    }
+
+    /**
+     * @return All requests executed by this transport
+     */
+    public List<SPiDHttpRequest> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (requests) {
+            requests.clear();
+        }
+    }
+}
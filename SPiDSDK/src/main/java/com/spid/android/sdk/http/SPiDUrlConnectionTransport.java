@@ -0,0 +1,96 @@
+package com.spid.android.sdk.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transport using <code>HttpURLConnection</code>, connections are kept alive and reused by the platform's connection pool.
+ * This transport does not depend on the Apache http library.
+ */
+public class SPiDUrlConnectionTransport implements SPiDHttpTransport {
+
+    private static final int CONNECTION_TIMEOUT = 60 * 1000;
+    private static final int READ_TIMEOUT = 60 * 1000;
+
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    /**
+     * Constructor for SPiDUrlConnectionTransport using default timeouts
+     */
+    public SPiDUrlConnectionTransport() {
+        this(CONNECTION_TIMEOUT, READ_TIMEOUT);
+    }
+
+    /**
+     * Constructor for SPiDUrlConnectionTransport
+     *
+     * @param connectTimeout Connect timeout in milliseconds
+     * @param readTimeout    Read timeout in milliseconds
+     */
+    public SPiDUrlConnectionTransport(int connectTimeout, int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public SPiDHttpResponse execute(SPiDHttpRequest request) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(request.getUrl()).openConnection();
+        request.setConnection(new Closeable() {
+            @Override
+            public void close() {
+                connection.disconnect();
+            }
+        });
+        try {
+            connection.setRequestMethod(request.getMethod());
+            connection.setInstanceFollowRedirects(false);
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+            connection.setUseCaches(false);
+            for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+                connection.setRequestProperty(entry.getKey(), entry.getValue());
+            }
+
+            byte[] body = request.getBody();
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.length);
+                connection.setRequestProperty("Content-Type", SPiDHttpRequest.FORM_CONTENT_TYPE);
+                OutputStream outputStream = connection.getOutputStream();
+                try {
+                    outputStream.write(body);
+                } finally {
+                    outputStream.close();
+                }
+            }
+
+            int code = connection.getResponseCode();
+            Map<String, String> headers = new HashMap<>();
+            for (Map.Entry<String, List<String>> entry : connection.getHeaderFields().entrySet()) {
+                List<String> values = entry.getValue();
+                if (entry.getKey() != null && values != null && !values.isEmpty()) {
+                    headers.put(entry.getKey(), values.get(values.size() - 1));
+                }
+            }
+
+            InputStream content = code >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream();
+            return new SPiDHttpResponse(code, headers, content);
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        // Connections are owned by the platform's connection pool
+    }
+}
@@ -20,6 +20,20 @@ import java.util.Date;
  */
 public class SPiDJwt {
 
+    /**
+     * The header is the same for every JWT, so it is encoded once
+     */
+    private static final String HEADER = "{\"alg\":\"HS256\",\"typ\":\"JWT\"}";
+
+    private static final ThreadLocal<DateFormat> DATE_FORMAT = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ");
+        }
+    };
+
+    private static volatile String encodedHeader;
+
     private final Date expirationDate;
     private final TokenType tokenType;
     private final SubjectClaim sub;
@@ -77,6 +91,15 @@ public class SPiDJwt {
         }
     }
 
+    private static String getEncodedHeader() {
+        String header = encodedHeader;
+        if (header == null) {
+            header = SPiDUtils.encodeBase64(HEADER);
+            encodedHeader = header;
+        }
+        return header;
+    }
+
     /**
      * Encodes and signs the JWT as a string
      *
@@ -85,20 +108,10 @@ public class SPiDJwt {
     public String encodedJwtString() throws SPiDException {
         validate();
 
-        String headerBase64;
-        try {
-            JSONObject headerJson = new JSONObject();
-            headerJson.put("alg", "HS256");
-            headerJson.put("typ", "JWT");
-            headerBase64 = SPiDUtils.encodeBase64(headerJson.toString());
-        } catch (JSONException e) {
-            throw new SPiDException("Error encoding JWT header");
-        }
-
-        DateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ");
-        String date = format.format(expirationDate);
+        String date = DATE_FORMAT.get().format(expirationDate);
 
-        String claimBase64;
+        // Header, claim and signature are appended to one builder, the claim is encoded without intermediate copies
+        StringBuilder jwt = new StringBuilder(512).append(getEncodedHeader()).append('.');
         try {
             JSONObject claimJson = new JSONObject();
             claimJson.put("iss", issuer);
@@ -107,20 +120,19 @@ public class SPiDJwt {
             claimJson.put("exp", date);
             claimJson.put("token_type", tokenType.toString());
             claimJson.put("token_value", tokenValue);
-            claimBase64 = SPiDUtils.encodeBase64(claimJson.toString());
+            SPiDUtils.appendBase64(jwt, claimJson.toString());
         } catch (JSONException e) {
             throw new SPiDException("Error encoding JWT header");
         }
 
         String signSecret = SPiDClient.getInstance().getConfig().getSignSecret();
-        String payload = headerBase64 + "." + claimBase64;
         String signature;
         try {
-            signature = SPiDUtils.getHmacSHA256(signSecret, payload);
+            signature = SPiDUtils.getHmacSHA256(signSecret, jwt.toString());
         } catch (Exception e) {
             throw new SPiDException("Error generating signature for JWT token");
         }
-        return payload + "." + signature;
+        return jwt.append('.').append(signature).toString();
 
     }
 }
\ No newline at end of file
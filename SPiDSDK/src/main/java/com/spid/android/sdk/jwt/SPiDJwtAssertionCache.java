@@ -0,0 +1,129 @@
+package com.spid.android.sdk.jwt;
+
+import com.spid.android.sdk.configuration.TokenType;
+import com.spid.android.sdk.exceptions.SPiDException;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps recently signed JWT assertions for social token exchanges, an assertion is reused for the same app id,
+ * token and audience until it nears expiry so repeated logins and retries skip the signing
+ */
+public class SPiDJwtAssertionCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 8;
+    private static final long DEFAULT_MIN_REMAINING = TimeUnit.MINUTES.toMillis(5);
+
+    private static final SPiDJwtAssertionCache instance = new SPiDJwtAssertionCache(DEFAULT_MAX_ENTRIES, DEFAULT_MIN_REMAINING);
+
+    private final long minRemaining;
+    private final Map<Key, Assertion> assertions;
+
+    /**
+     * Constructor for SPiDJwtAssertionCache
+     *
+     * @param maxEntries   Maximum number of cached assertions, the least recently used assertion is removed first
+     * @param minRemaining Time in milliseconds an assertion must have left before expiry to be reused
+     */
+    public SPiDJwtAssertionCache(final int maxEntries, long minRemaining) {
+        this.minRemaining = minRemaining;
+        this.assertions = new LinkedHashMap<Key, Assertion>(maxEntries, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Assertion> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return The shared assertion cache
+     */
+    public static SPiDJwtAssertionCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns a signed assertion, reusing a cached assertion if it does not expire within the minimum remaining time
+     *
+     * @param issuer         Issuer
+     * @param sub            Subject
+     * @param audience       Audience
+     * @param expirationDate Expiration time used if a new assertion is signed
+     * @param tokenType      Token type
+     * @param tokenValue     The actual token
+     * @return Encoded JWT
+     * @throws SPiDException If the JWT could not be signed
+     */
+    public String getAssertion(String issuer, SubjectClaim sub, String audience, Date expirationDate, TokenType tokenType, String tokenValue) throws SPiDException {
+        Key key = new Key(issuer, tokenType, tokenValue, sub, audience);
+        long now = System.currentTimeMillis();
+        synchronized (assertions) {
+            Assertion cached = assertions.get(key);
+            if (cached != null && cached.expiresAt - now > minRemaining) {
+                return cached.encoded;
+            }
+        }
+
+        String encoded = sign(new SPiDJwt(issuer, sub, audience, expirationDate, tokenType, tokenValue));
+        if (expirationDate != null) {
+            synchronized (assertions) {
+                assertions.put(key, new Assertion(encoded, expirationDate.getTime()));
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Removes all cached assertions
+     */
+    public void clear() {
+        synchronized (assertions) {
+            assertions.clear();
+        }
+    }
+
+    /**
+     * Signs a JWT
+     *
+     * @param jwt The JWT to sign
+     * @return Encoded JWT
+     * @throws SPiDException If the JWT could not be signed
+     */
+    protected String sign(SPiDJwt jwt) throws SPiDException {
+        return jwt.encodedJwtString();
+    }
+
+    private static final class Assertion {
+        private final String encoded;
+        private final long expiresAt;
+
+        private Assertion(String encoded, long expiresAt) {
+            this.encoded = encoded;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Key {
+        private final Object[] values;
+        private final int hashCode;
+
+        private Key(Object... values) {
+            this.values = values;
+            this.hashCode = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(values, ((Key) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.spid.android.sdk.keychain;
+
+import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Binary record holding a complete access token so that it can be encrypted and stored as a single value.
+ * The first byte is the format version, followed by the access token, the expiry time in milliseconds,
+ * the optional refresh token and user id, and since version 2 the optional issue time in milliseconds.
+ */
+public class SPiDAccessTokenRecord {
+
+    public static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_ISSUE_TIME = 1;
+
+    private SPiDAccessTokenRecord() {
+    }
+
+    /**
+     * Encodes an access token to a record
+     *
+     * @param accessToken Access token to encode
+     * @return The record
+     */
+    public static byte[] encode(SPiDAccessToken accessToken) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            output.writeByte(VERSION);
+            output.writeUTF(accessToken.getAccessToken());
+            output.writeLong(accessToken.getExpiresAt().getTime());
+            writeOptionalString(output, accessToken.getRefreshToken());
+            writeOptionalString(output, accessToken.getUserID());
+            output.writeBoolean(accessToken.getIssuedAt() != null);
+            if (accessToken.getIssuedAt() != null) {
+                output.writeLong(accessToken.getIssuedAt().getTime());
+            }
+            output.flush();
+        } catch (IOException e) {
+            // Shouldn't be possible writing to memory...
+            throw new IllegalStateException("Could not encode access token", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an access token from a record
+     *
+     * @param record The record
+     * @return The access token
+     * @throws IOException If the record is truncated or has an unknown version
+     */
+    public static SPiDAccessToken decode(byte[] record) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+        int version = input.readUnsignedByte();
+        if (version != VERSION && version != VERSION_WITHOUT_ISSUE_TIME) {
+            throw new IOException("Unsupported access token record version " + version);
+        }
+        String accessToken = input.readUTF();
+        long expiresAt = input.readLong();
+        String refreshToken = readOptionalString(input);
+        String userId = readOptionalString(input);
+        Long issuedAt = version != VERSION_WITHOUT_ISSUE_TIME && input.readBoolean() ? input.readLong() : null;
+        return new SPiDAccessToken(accessToken, issuedAt, expiresAt, refreshToken, userId);
+    }
+
+    private static void writeOptionalString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readOptionalString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
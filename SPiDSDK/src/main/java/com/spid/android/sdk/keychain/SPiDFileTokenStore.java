@@ -0,0 +1,71 @@
+package com.spid.android.sdk.keychain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Stores the access token record in a private file. Writes go to a temporary file that is synced and then
+ * renamed over the record, so a crash during a write never leaves a partial record.
+ */
+public class SPiDFileTokenStore implements SPiDTokenStore {
+
+    private final File file;
+    private final File tempFile;
+
+    /**
+     * Constructor for SPiDFileTokenStore
+     *
+     * @param file File holding the record, e.g. in <code>Context.getFilesDir()</code>
+     */
+    public SPiDFileTokenStore(File file) {
+        this.file = file;
+        this.tempFile = new File(file.getPath() + ".tmp");
+    }
+
+    @Override
+    public synchronized byte[] load() throws IOException {
+        FileInputStream input;
+        try {
+            input = new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[512];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            input.close();
+        }
+    }
+
+    @Override
+    public synchronized void save(byte[] record) throws IOException {
+        FileOutputStream output = new FileOutputStream(tempFile);
+        try {
+            output.write(record);
+            output.getFD().sync();
+        } finally {
+            output.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Could not rename " + tempFile + " to " + file);
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Could not delete " + file);
+        }
+    }
+}
@@ -4,111 +4,141 @@ import android.content.SharedPreferences;
 import android.provider.Settings;
 import android.util.Base64;
 
+import com.spid.android.sdk.SPiDClient;
 import com.spid.android.sdk.accesstoken.SPiDAccessToken;
 import com.spid.android.sdk.exceptions.SPiDKeychainException;
 import com.spid.android.sdk.utils.SPiDUtils;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.security.GeneralSecurityException;
 
-import javax.crypto.Cipher;
-import javax.crypto.SecretKey;
-import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.PBEKeySpec;
-import javax.crypto.spec.PBEParameterSpec;
-
 /**
- * Helper class used to securely encrypt/decrypt access token to SharedPreferences
+ * Helper class used to securely encrypt/decrypt access token to the configured <code>SPiDTokenStore</code>,
+ * SharedPreferences by default
  */
 public class SPiDKeychain {
 
     protected static final String UTF8 = "utf-8";
 
+    private static final String LEGACY_ACCESS_TOKEN = "access_token";
+    private static final String LEGACY_EXPIRES_AT = "expires_at";
+    private static final String LEGACY_REFRESH_TOKEN = "refresh_token";
+    private static final String LEGACY_USER_ID = "user_id";
+
+    private static final SPiDTokenStore DEFAULT_TOKEN_STORE = new SPiDSharedPreferencesTokenStore();
+
     /**
-     * Encrypts access token and saves it to SharedPreferences
+     * Encrypts access token and saves it to the token store as a single record
      *
      * @param encryptionKey Key used to encrypt the access token
      * @param accessToken   Access token to be saved
      */
     public static void encryptAccessTokenToSharedPreferences(String encryptionKey, SPiDAccessToken accessToken) {
-        SharedPreferences secure = SPiDUtils.getSecurePreferencesFile();
-        SharedPreferences.Editor editor = secure.edit();
         try {
-            editor.putString("access_token", encryptString(encryptionKey, accessToken.getAccessToken()));
-            editor.putString("expires_at", encryptString(encryptionKey, Long.toString(accessToken.getExpiresAt().getTime())));
-            editor.putString("refresh_token", encryptString(encryptionKey, accessToken.getRefreshToken()));
-            editor.putString("user_id", encryptString(encryptionKey, accessToken.getUserID()));
+            getTokenStore().save(encryptRecord(encryptionKey, accessToken));
         } catch (GeneralSecurityException e) {
             clearAccessTokenFromSharedPreferences();
             throw new SPiDKeychainException("GeneralSecurityException", e);
+        } catch (IOException e) {
+            throw new SPiDKeychainException("Could not save access token", e);
         }
-        editor.apply();
     }
 
     /**
-     * Decrypts access token from SharedPreferences
+     * Decrypts access token from the token store, access tokens stored in the legacy SharedPreferences format
+     * are migrated to a single record
      *
      * @param encryptionKey Key used to decrypt the access token
      * @return Access token if found, otherwise null
      */
     public static SPiDAccessToken decryptAccessTokenFromSharedPreferences(String encryptionKey) {
-        if(hasAccessToken()) {
+        try {
+            byte[] record = getTokenStore().load();
+            if (record != null) {
+                return decryptRecord(encryptionKey, record);
+            }
             SharedPreferences secure = SPiDUtils.getSecurePreferencesFile();
-            try {
-                String accessToken = decryptString(encryptionKey, secure.getString("access_token", ""));
-                Long expiresAt = Long.valueOf(decryptString(encryptionKey, secure.getString("expires_at", "")));
-                String refreshToken = decryptString(encryptionKey, secure.getString("refresh_token", ""));
-                String userId = decryptString(encryptionKey, secure.getString("user_id", ""));
-                return new SPiDAccessToken(accessToken, expiresAt, refreshToken, userId);
-            } catch (GeneralSecurityException e) {
-                clearAccessTokenFromSharedPreferences();
-                throw new SPiDKeychainException("GeneralSecurityException", e);
+            if (secure.contains(LEGACY_ACCESS_TOKEN)) {
+                SPiDAccessToken accessToken = decryptLegacyAccessToken(encryptionKey, secure);
+                encryptAccessTokenToSharedPreferences(encryptionKey, accessToken);
+                removeLegacyEntries(secure);
+                return accessToken;
+            } else {
+                return null;
             }
-        } else {
-            return null;
+        } catch (GeneralSecurityException e) {
+            clearAccessTokenFromSharedPreferences();
+            throw new SPiDKeychainException("GeneralSecurityException", e);
+        } catch (IOException e) {
+            clearAccessTokenFromSharedPreferences();
+            throw new SPiDKeychainException("Invalid access token record", e);
         }
     }
 
-    private static boolean hasAccessToken() {
-        SharedPreferences secure = SPiDUtils.getSecurePreferencesFile();
-        return secure.contains("access_token");
-    }
-
     /**
-     * Clears access token from SharedPreferences
+     * Clears access token from the token store
      */
     public static void clearAccessTokenFromSharedPreferences() {
-        SharedPreferences secure = SPiDUtils.getSecurePreferencesFile();
+        try {
+            getTokenStore().clear();
+        } catch (IOException e) {
+            throw new SPiDKeychainException("Could not clear access token", e);
+        } finally {
+            SharedPreferences secure = SPiDUtils.getSecurePreferencesFile();
+            if (secure.contains(LEGACY_ACCESS_TOKEN)) {
+                removeLegacyEntries(secure);
+            }
+        }
+    }
+
+    private static SPiDTokenStore getTokenStore() {
+        SPiDTokenStore tokenStore = SPiDClient.getInstance().getConfig().getTokenStore();
+        return tokenStore != null ? tokenStore : DEFAULT_TOKEN_STORE;
+    }
+
+    private static void removeLegacyEntries(SharedPreferences secure) {
         SharedPreferences.Editor editor = secure.edit();
-        editor.remove("access_token");
-        editor.remove("expires_at");
-        editor.remove("refresh_token");
-        editor.remove("user_id");
+        editor.remove(LEGACY_ACCESS_TOKEN);
+        editor.remove(LEGACY_EXPIRES_AT);
+        editor.remove(LEGACY_REFRESH_TOKEN);
+        editor.remove(LEGACY_USER_ID);
         editor.apply();
     }
 
+    private static SPiDAccessToken decryptLegacyAccessToken(String encryptionKey, SharedPreferences secure) throws GeneralSecurityException {
+        String accessToken = decryptString(encryptionKey, secure.getString(LEGACY_ACCESS_TOKEN, ""));
+        Long expiresAt = Long.valueOf(decryptString(encryptionKey, secure.getString(LEGACY_EXPIRES_AT, "")));
+        String refreshToken = decryptString(encryptionKey, secure.getString(LEGACY_REFRESH_TOKEN, ""));
+        String userId = decryptString(encryptionKey, secure.getString(LEGACY_USER_ID, ""));
+        return new SPiDAccessToken(accessToken, expiresAt, refreshToken, userId);
+    }
+
     /**
-     * Encrypts a string using the "PBEWithMD5AndDES" algorithm
+     * Encrypts an access token record using the "PBEWithMD5AndDES" algorithm
      *
      * @param encryptionKey Key used to encrypt the access token
-     * @param value         String to be encrypted
-     * @return Encrypted string
+     * @param accessToken   Access token to be encrypted
+     * @return Encrypted record
      * @throws GeneralSecurityException
      */
-    private static String encryptString(String encryptionKey, String value) throws GeneralSecurityException {
-        try {
-            final byte[] bytes = value != null ? value.getBytes(UTF8) : new byte[0];
-            SecretKeyFactory keyFactory = SecretKeyFactory.getInstance("PBEWithMD5AndDES");
-            SecretKey key = keyFactory.generateSecret(new PBEKeySpec(encryptionKey.toCharArray()));
-            Cipher pbeCipher = Cipher.getInstance("PBEWithMD5AndDES");
-            //TODO:
-            //pbeCipher.init(Cipher.ENCRYPT_MODE, key, new PBEParameterSpec(Settings.Secure.ANDROID_ID.getBytes(UTF8), 20));
-            pbeCipher.init(Cipher.ENCRYPT_MODE, key, new PBEParameterSpec(Settings.Secure.ANDROID_ID.getBytes(UTF8), 20));
-            return new String(Base64.encode(pbeCipher.doFinal(bytes), Base64.NO_WRAP), UTF8);
-        } catch(UnsupportedEncodingException e) {
-            // Shouldn't be possible using UTF-8...
-            throw new GeneralSecurityException("Could not encode using encoding " + UTF8, e);
-        }
+    private static byte[] encryptRecord(String encryptionKey, SPiDAccessToken accessToken) throws GeneralSecurityException {
+        SPiDKeychainCipher cipher = SPiDKeychainCipher.getInstance(encryptionKey, Settings.Secure.ANDROID_ID);
+        return cipher.encrypt(SPiDAccessTokenRecord.encode(accessToken));
+    }
+
+    /**
+     * Decrypts an access token record using the "PBEWithMD5AndDES" algorithm
+     *
+     * @param encryptionKey Key used to decrypt the access token
+     * @param record        Record to be decrypted
+     * @return Decrypted access token
+     * @throws GeneralSecurityException
+     * @throws IOException If the record is invalid
+     */
+    private static SPiDAccessToken decryptRecord(String encryptionKey, byte[] record) throws GeneralSecurityException, IOException {
+        SPiDKeychainCipher cipher = SPiDKeychainCipher.getInstance(encryptionKey, Settings.Secure.ANDROID_ID);
+        return SPiDAccessTokenRecord.decode(cipher.decrypt(record));
     }
 
     /**
@@ -121,12 +151,9 @@ public class SPiDKeychain {
      */
     private static String decryptString(String encryptionKey, String value) throws GeneralSecurityException {
         final byte[] bytes = value != null ? Base64.decode(value, Base64.DEFAULT) : new byte[0];
-        SecretKeyFactory keyFactory = SecretKeyFactory.getInstance("PBEWithMD5AndDES");
-        SecretKey key = keyFactory.generateSecret(new PBEKeySpec(encryptionKey.toCharArray()));
-        Cipher pbeCipher = Cipher.getInstance("PBEWithMD5AndDES");
+        SPiDKeychainCipher cipher = SPiDKeychainCipher.getInstance(encryptionKey, Settings.Secure.ANDROID_ID);
         try {
-            pbeCipher.init(Cipher.DECRYPT_MODE, key, new PBEParameterSpec(Settings.Secure.ANDROID_ID.getBytes(UTF8), 20));
-            return new String(pbeCipher.doFinal(bytes), UTF8);
+            return new String(cipher.decrypt(bytes), UTF8);
         } catch (UnsupportedEncodingException e) {
             // Shouldn't be possible using UTF-8...
             throw new GeneralSecurityException("Could not decrypt string using " + UTF8, e);
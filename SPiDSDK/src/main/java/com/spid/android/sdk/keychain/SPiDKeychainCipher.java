@@ -0,0 +1,129 @@
+package com.spid.android.sdk.keychain;
+
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.PBEParameterSpec;
+
+/**
+ * Encrypts and decrypts keychain values using the "PBEWithMD5AndDES" algorithm. Deriving the key is expensive,
+ * so the key and the initialized ciphers are created once per encryption key and salt and reused.
+ */
+public class SPiDKeychainCipher {
+
+    private static final String ALGORITHM = "PBEWithMD5AndDES";
+    private static final int ITERATION_COUNT = 20;
+
+    private static final int MAX_CACHED_CIPHERS = 4;
+
+    /**
+     * Size of the salts created by {@link #createSalt()}, the algorithm takes an 8 byte salt
+     */
+    public static final int SALT_SIZE = 8;
+    private static final String SALT_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    // Least recently used pairs are removed first, old ones belong to a previous configuration or a cleared cache
+    private static final Map<String, SPiDKeychainCipher> CACHED =
+            new LinkedHashMap<String, SPiDKeychainCipher>(MAX_CACHED_CIPHERS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SPiDKeychainCipher> eldest) {
+                    return size() > MAX_CACHED_CIPHERS;
+                }
+            };
+
+    private final Cipher encryptCipher;
+    private final Cipher decryptCipher;
+
+    /**
+     * Constructor for SPiDKeychainCipher
+     *
+     * @param encryptionKey Key used to encrypt and decrypt
+     * @param salt          Salt used for the key derivation
+     * @throws GeneralSecurityException If the algorithm is not available
+     */
+    public SPiDKeychainCipher(String encryptionKey, String salt) throws GeneralSecurityException {
+        SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(ALGORITHM);
+        SecretKey key = keyFactory.generateSecret(new PBEKeySpec(encryptionKey.toCharArray()));
+        PBEParameterSpec parameterSpec;
+        try {
+            parameterSpec = new PBEParameterSpec(salt.getBytes(SPiDKeychain.UTF8), ITERATION_COUNT);
+        } catch (UnsupportedEncodingException e) {
+            // Shouldn't be possible using UTF-8...
+            throw new GeneralSecurityException("Could not encode using encoding " + SPiDKeychain.UTF8, e);
+        }
+        encryptCipher = Cipher.getInstance(ALGORITHM);
+        encryptCipher.init(Cipher.ENCRYPT_MODE, key, parameterSpec);
+        decryptCipher = Cipher.getInstance(ALGORITHM);
+        decryptCipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
+    }
+
+    /**
+     * Returns the cipher for the encryption key and salt, the cipher is only derived the first time a pair is used
+     *
+     * @param encryptionKey Key used to encrypt and decrypt
+     * @param salt          Salt used for the key derivation
+     * @return The cipher
+     * @throws GeneralSecurityException If the algorithm is not available
+     */
+    public static SPiDKeychainCipher getInstance(String encryptionKey, String salt) throws GeneralSecurityException {
+        // Length prefixed so that different pairs never map to the same cache key
+        String cacheKey = salt.length() + ":" + salt + encryptionKey;
+        SPiDKeychainCipher cipher;
+        synchronized (CACHED) {
+            cipher = CACHED.get(cacheKey);
+        }
+        if (cipher == null) {
+            // Derived outside the lock, a pair derived twice concurrently is harmless
+            cipher = new SPiDKeychainCipher(encryptionKey, salt);
+            synchronized (CACHED) {
+                CACHED.put(cacheKey, cipher);
+            }
+        }
+        return cipher;
+    }
+
+    /**
+     * Creates a random salt for data encrypted on disk, written as ASCII characters so that it can be stored as a
+     * string
+     *
+     * @return The salt
+     */
+    public static String createSalt() {
+        SecureRandom random = new SecureRandom();
+        StringBuilder salt = new StringBuilder(SALT_SIZE);
+        for (int i = 0; i < SALT_SIZE; i++) {
+            salt.append(SALT_CHARACTERS.charAt(random.nextInt(SALT_CHARACTERS.length())));
+        }
+        return salt.toString();
+    }
+
+    /**
+     * @param bytes Bytes to encrypt
+     * @return The encrypted bytes
+     * @throws GeneralSecurityException If encryption fails
+     */
+    public byte[] encrypt(byte[] bytes) throws GeneralSecurityException {
+        // Ciphers are not thread-safe, doFinal resets the cipher so it can be reused
+        synchronized (encryptCipher) {
+            return encryptCipher.doFinal(bytes);
+        }
+    }
+
+    /**
+     * @param bytes Bytes to decrypt
+     * @return The decrypted bytes
+     * @throws GeneralSecurityException If decryption fails
+     */
+    public byte[] decrypt(byte[] bytes) throws GeneralSecurityException {
+        synchronized (decryptCipher) {
+            return decryptCipher.doFinal(bytes);
+        }
+    }
+}
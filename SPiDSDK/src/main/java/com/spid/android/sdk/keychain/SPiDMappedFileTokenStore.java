@@ -0,0 +1,108 @@
+package com.spid.android.sdk.keychain;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Stores the access token record in a small memory-mapped file, reads are a copy from the mapping without any
+ * parsing. The file starts with the record length followed by the record, a length of <code>0</code> means
+ * no record is stored. The length is cleared and flushed before the record is written, and set again only once
+ * the record has been flushed, so an interrupted save leaves either no record or the complete new one. This holds
+ * as far as <code>MappedByteBuffer.force()</code> reaches the storage device, a lost flush can still lose the save.
+ */
+public class SPiDMappedFileTokenStore implements SPiDTokenStore {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int HEADER_SIZE = 4;
+
+    private final File file;
+    private final int capacity;
+    private MappedByteBuffer buffer;
+
+    /**
+     * Constructor for SPiDMappedFileTokenStore
+     *
+     * @param file File holding the record, e.g. in <code>Context.getFilesDir()</code>
+     */
+    public SPiDMappedFileTokenStore(File file) {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for SPiDMappedFileTokenStore
+     *
+     * @param file     File holding the record, e.g. in <code>Context.getFilesDir()</code>
+     * @param capacity Size of the file in bytes, limits the size of the record
+     */
+    public SPiDMappedFileTokenStore(File file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized byte[] load() throws IOException {
+        if (buffer == null && !file.exists()) {
+            return null;
+        }
+        MappedByteBuffer mapped = map();
+        int length = mapped.getInt(0);
+        if (length <= 0) {
+            return null;
+        }
+        if (length > capacity - HEADER_SIZE) {
+            throw new IOException("Invalid record length " + length);
+        }
+        byte[] record = new byte[length];
+        mapped.position(HEADER_SIZE);
+        mapped.get(record);
+        return record;
+    }
+
+    @Override
+    public synchronized void save(byte[] record) throws IOException {
+        if (record.length == 0 || record.length > capacity - HEADER_SIZE) {
+            throw new IOException("Record of " + record.length + " bytes does not fit in " + file);
+        }
+        MappedByteBuffer mapped = map();
+        mapped.putInt(0, 0);
+        mapped.force();
+        mapped.position(HEADER_SIZE);
+        mapped.put(record);
+        mapped.force();
+        mapped.putInt(0, record.length);
+        mapped.force();
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        if (buffer == null && !file.exists()) {
+            return;
+        }
+        MappedByteBuffer mapped = map();
+        mapped.putInt(0, 0);
+        mapped.force();
+        // Remove the encrypted record from the file too, not only its length
+        mapped.position(HEADER_SIZE);
+        mapped.put(new byte[capacity - HEADER_SIZE]);
+        mapped.force();
+    }
+
+    private MappedByteBuffer map() throws IOException {
+        if (buffer == null) {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                if (randomAccessFile.length() != capacity) {
+                    randomAccessFile.setLength(capacity);
+                }
+                // The mapping stays valid after the file is closed
+                buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            } finally {
+                randomAccessFile.close();
+            }
+        }
+        return buffer;
+    }
+}
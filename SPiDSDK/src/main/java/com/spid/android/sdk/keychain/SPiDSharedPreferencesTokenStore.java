@@ -0,0 +1,34 @@
+package com.spid.android.sdk.keychain;
+
+import android.content.SharedPreferences;
+import android.util.Base64;
+
+import com.spid.android.sdk.utils.SPiDUtils;
+
+/**
+ * Stores the access token record Base64 encoded in the SDK's SharedPreferences, this is the default token store
+ */
+public class SPiDSharedPreferencesTokenStore implements SPiDTokenStore {
+
+    private static final String ACCESS_TOKEN_RECORD = "access_token_record";
+
+    @Override
+    public byte[] load() {
+        String record = SPiDUtils.getSecurePreferencesFile().getString(ACCESS_TOKEN_RECORD, null);
+        return record != null ? Base64.decode(record, Base64.DEFAULT) : null;
+    }
+
+    @Override
+    public void save(byte[] record) {
+        SharedPreferences.Editor editor = SPiDUtils.getSecurePreferencesFile().edit();
+        editor.putString(ACCESS_TOKEN_RECORD, Base64.encodeToString(record, Base64.NO_WRAP));
+        editor.apply();
+    }
+
+    @Override
+    public void clear() {
+        SharedPreferences.Editor editor = SPiDUtils.getSecurePreferencesFile().edit();
+        editor.remove(ACCESS_TOKEN_RECORD);
+        editor.apply();
+    }
+}
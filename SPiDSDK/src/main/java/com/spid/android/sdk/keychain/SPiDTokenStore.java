@@ -0,0 +1,30 @@
+package com.spid.android.sdk.keychain;
+
+import java.io.IOException;
+
+/**
+ * Storage for the encrypted access token record, implementations only store bytes and never see the plain token
+ */
+public interface SPiDTokenStore {
+
+    /**
+     * @return The stored record, <code>null</code> if no record is stored
+     * @throws IOException If the record could not be read
+     */
+    public byte[] load() throws IOException;
+
+    /**
+     * Replaces the stored record
+     *
+     * @param record The record to store
+     * @throws IOException If the record could not be written
+     */
+    public void save(byte[] record) throws IOException;
+
+    /**
+     * Removes the stored record
+     *
+     * @throws IOException If the record could not be removed
+     */
+    public void clear() throws IOException;
+}
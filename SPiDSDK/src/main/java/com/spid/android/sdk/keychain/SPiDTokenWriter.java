@@ -0,0 +1,119 @@
+package com.spid.android.sdk.keychain;
+
+import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+import com.spid.android.sdk.logger.SPiDLogger;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Persists the access token on a background thread. Only the latest token is written, updates that arrive while
+ * a write is running are coalesced into a single write.
+ */
+public class SPiDTokenWriter {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final AtomicReference<Write> pending = new AtomicReference<>();
+    private final ThreadPoolExecutor executor;
+    private final Runnable drainRunnable = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    /**
+     * Constructor for SPiDTokenWriter
+     */
+    public SPiDTokenWriter() {
+        executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SPiDTokenWriter");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Saves the access token in the background, replaces any write that has not started yet
+     *
+     * @param encryptionKey Key used to encrypt the access token
+     * @param accessToken   Access token to be saved
+     */
+    public void save(String encryptionKey, SPiDAccessToken accessToken) {
+        enqueue(new Write(encryptionKey, accessToken));
+    }
+
+    /**
+     * Clears the stored access token in the background, replaces any write that has not started yet
+     */
+    public void clear() {
+        enqueue(new Write(null, null));
+    }
+
+    /**
+     * @return Executor running the writes, tasks submitted to it run after all previously requested writes
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Writes the access token to storage, called on the writer thread
+     *
+     * @param encryptionKey Key used to encrypt the access token
+     * @param accessToken   Access token to be saved
+     */
+    protected void write(String encryptionKey, SPiDAccessToken accessToken) {
+        SPiDKeychain.encryptAccessTokenToSharedPreferences(encryptionKey, accessToken);
+    }
+
+    /**
+     * Clears the access token from storage, called on the writer thread
+     */
+    protected void delete() {
+        SPiDKeychain.clearAccessTokenFromSharedPreferences();
+    }
+
+    private void enqueue(Write write) {
+        // Only schedule a drain if none is pending, a pending drain picks up the latest write
+        if (pending.getAndSet(write) == null) {
+            executor.execute(drainRunnable);
+        }
+    }
+
+    private void drain() {
+        Write write = pending.getAndSet(null);
+        if (write == null) {
+            return;
+        }
+        try {
+            if (write.accessToken != null) {
+                write(write.encryptionKey, write.accessToken);
+            } else {
+                delete();
+            }
+        } catch (RuntimeException e) {
+            SPiDLogger.log("Could not persist access token", e);
+        }
+    }
+
+    private static class Write {
+        private final String encryptionKey;
+        private final SPiDAccessToken accessToken;
+
+        private Write(String encryptionKey, SPiDAccessToken accessToken) {
+            this.encryptionKey = encryptionKey;
+            this.accessToken = accessToken;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.spid.android.sdk.listener;
+
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreaker;
+
+/**
+ * Listener interface for circuit breaker state changes, e.g. to degrade the UI while an endpoint is failing.
+ */
+public interface SPiDCircuitBreakerListener {
+
+    /**
+     * Called when the circuit breaker for an endpoint changes state
+     *
+     * @param endpoint The endpoint, e.g. <code>https://login.schibsted.com/api/{id}/user/{id}</code>
+     * @param state    The new state
+     */
+    public void onStateChanged(String endpoint, SPiDCircuitBreaker.State state);
+}
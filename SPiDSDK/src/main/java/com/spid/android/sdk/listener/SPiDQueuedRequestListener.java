@@ -0,0 +1,15 @@
+package com.spid.android.sdk.listener;
+
+/**
+ * Listener interface for a durable SPiD request that wants to know when the request is stored for replay.
+ */
+public interface SPiDQueuedRequestListener extends SPiDRequestListener {
+
+    /**
+     * Called instead of <code>onError</code> when a durable request could not reach SPiD and is replayed when
+     * connectivity returns, the listener is not called again for the request
+     *
+     * @param exception The Exception that kept the request from reaching SPiD
+     */
+    public void onQueued(Exception exception);
+}
@@ -0,0 +1,33 @@
+package com.spid.android.sdk.ratelimit;
+
+/**
+ * Token bucket settings for a class of endpoints, allows bursts of <code>capacity</code> requests and
+ * <code>requestsPerSecond</code> on average
+ */
+public class SPiDRateLimit {
+
+    private final int capacity;
+    private final double requestsPerSecond;
+
+    /**
+     * Constructor for SPiDRateLimit
+     *
+     * @param capacity          Maximum number of requests in a burst
+     * @param requestsPerSecond Rate at which the bucket refills
+     */
+    public SPiDRateLimit(int capacity, double requestsPerSecond) {
+        if (capacity < 1 || requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity must be at least 1 and requestsPerSecond above 0");
+        }
+        this.capacity = capacity;
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+}
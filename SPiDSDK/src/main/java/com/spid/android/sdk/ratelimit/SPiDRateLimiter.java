@@ -0,0 +1,154 @@
+package com.spid.android.sdk.ratelimit;
+
+import com.spid.android.sdk.utils.SPiDUrl;
+
+import java.net.HttpURLConnection;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Client side rate limiting with a token bucket per class of endpoints, and pauses for endpoints that answered 429 or
+ * 503 with a Retry-After header
+ */
+public class SPiDRateLimiter {
+
+    public static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private static final String HTTP_DATE_FORMAT = "EEE, dd MMM yyyy HH:mm:ss zzz";
+
+    public enum EndpointClass {
+        TOKEN,
+        API,
+        OTHER
+    }
+
+    private final Map<EndpointClass, SPiDRateLimit> rateLimits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, SPiDTokenBucket> buckets = new EnumMap<>(EndpointClass.class);
+    private final ConcurrentMap<String, Long> pausedUntil = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for SPiDRateLimiter
+     *
+     * @param tokenRateLimit Rate limit for the OAuth token endpoint, <code>null</code> for no limit
+     * @param apiRateLimit   Rate limit for the API, <code>null</code> for no limit
+     */
+    public SPiDRateLimiter(SPiDRateLimit tokenRateLimit, SPiDRateLimit apiRateLimit) {
+        if (tokenRateLimit != null) {
+            rateLimits.put(EndpointClass.TOKEN, tokenRateLimit);
+        }
+        if (apiRateLimit != null) {
+            rateLimits.put(EndpointClass.API, apiRateLimit);
+        }
+    }
+
+    /**
+     * Checks if a request may be sent and takes a token from the bucket of its endpoint class
+     *
+     * @param url The request url
+     * @param now The current time in milliseconds
+     * @return <code>0</code> if the request may be sent, otherwise time in milliseconds until it may be sent
+     */
+    public long acquire(String url, long now) {
+        long paused = getPauseRemaining(url, now);
+        if (paused > 0) {
+            return paused;
+        }
+        SPiDTokenBucket bucket = getBucket(classify(url), now);
+        return bucket != null ? bucket.tryAcquire(now) : 0;
+    }
+
+    /**
+     * Pauses the endpoint of a request that was answered with 429 or 503 and a Retry-After header
+     *
+     * @param url        The request url
+     * @param code       The http status code
+     * @param retryAfter The Retry-After header, can be <code>null</code>
+     * @param now        The current time in milliseconds
+     */
+    public void onResponse(String url, int code, String retryAfter, long now) {
+        if (code != HTTP_TOO_MANY_REQUESTS && code != HttpURLConnection.HTTP_UNAVAILABLE) {
+            return;
+        }
+        long delay = parseRetryAfter(retryAfter, now);
+        if (delay > 0) {
+            pausedUntil.put(SPiDUrl.getEndpoint(url), now + delay);
+        }
+    }
+
+    /**
+     * @param url The request url
+     * @param now The current time in milliseconds
+     * @return Time in milliseconds until the endpoint of the url is no longer paused, <code>0</code> if it is not paused
+     */
+    public long getPauseRemaining(String url, long now) {
+        String endpoint = SPiDUrl.getEndpoint(url);
+        Long until = pausedUntil.get(endpoint);
+        if (until == null) {
+            return 0;
+        }
+        if (until <= now) {
+            pausedUntil.remove(endpoint, until);
+            return 0;
+        }
+        return until - now;
+    }
+
+    /**
+     * @param url The request url
+     * @return The endpoint class of the url
+     */
+    public static EndpointClass classify(String url) {
+        String endpoint = SPiDUrl.getEndpoint(url);
+        if (endpoint.contains("/oauth/")) {
+            return EndpointClass.TOKEN;
+        }
+        if (endpoint.contains("/api/")) {
+            return EndpointClass.API;
+        }
+        return EndpointClass.OTHER;
+    }
+
+    /**
+     * Parses a Retry-After header, either delta seconds or an HTTP date
+     *
+     * @param value The header value, can be <code>null</code>
+     * @param now   The current time in milliseconds
+     * @return Time in milliseconds to wait, <code>-1</code> if the header is missing or invalid
+     */
+    public static long parseRetryAfter(String value, long now) {
+        if (value == null) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            long seconds = Long.parseLong(trimmed);
+            return seconds >= 0 ? seconds * 1000 : -1;
+        } catch (NumberFormatException e) {
+            // Not delta seconds, try an HTTP date
+        }
+        SimpleDateFormat format = new SimpleDateFormat(HTTP_DATE_FORMAT, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            Date date = format.parse(trimmed);
+            return Math.max(0, date.getTime() - now);
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    private synchronized SPiDTokenBucket getBucket(EndpointClass endpointClass, long now) {
+        SPiDTokenBucket bucket = buckets.get(endpointClass);
+        if (bucket == null && rateLimits.containsKey(endpointClass)) {
+            bucket = new SPiDTokenBucket(rateLimits.get(endpointClass), now);
+            buckets.put(endpointClass, bucket);
+        }
+        return bucket;
+    }
+}
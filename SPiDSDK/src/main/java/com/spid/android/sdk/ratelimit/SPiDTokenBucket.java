@@ -0,0 +1,42 @@
+package com.spid.android.sdk.ratelimit;
+
+/**
+ * Token bucket that refills continuously, a request takes one token
+ */
+public class SPiDTokenBucket {
+
+    private final SPiDRateLimit rateLimit;
+
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Constructor for SPiDTokenBucket, the bucket starts full
+     *
+     * @param rateLimit The capacity and refill rate
+     * @param now       The current time in milliseconds
+     */
+    public SPiDTokenBucket(SPiDRateLimit rateLimit, long now) {
+        this.rateLimit = rateLimit;
+        this.tokens = rateLimit.getCapacity();
+        this.refilledAt = now;
+    }
+
+    /**
+     * Takes a token if there is one
+     *
+     * @param now The current time in milliseconds
+     * @return <code>0</code> if a token was taken, otherwise time in milliseconds until the next token
+     */
+    public synchronized long tryAcquire(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(rateLimit.getCapacity(), tokens + (now - refilledAt) * rateLimit.getRequestsPerSecond() / 1000);
+            refilledAt = now;
+        }
+        if (tokens >= 1) {
+            tokens--;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * 1000 / rateLimit.getRequestsPerSecond());
+    }
+}
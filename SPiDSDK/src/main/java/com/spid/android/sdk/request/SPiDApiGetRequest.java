@@ -5,7 +5,7 @@ import com.spid.android.sdk.configuration.SPiDConfiguration;
 import com.spid.android.sdk.listener.SPiDRequestListener;
 
 /**
- * Contains a SPiD Api GET request
+ * Contains a SPiD Api GET request, responses are cached if the response cache is enabled in the configuration
  */
 public class SPiDApiGetRequest extends SPiDRequest {
 
@@ -28,5 +28,6 @@ public class SPiDApiGetRequest extends SPiDRequest {
      */
     private SPiDApiGetRequest(SPiDConfiguration config, String path, SPiDRequestListener listener) {
         super(GET, config.getServerURL() + "/api/" + config.getApiVersion() + path, listener);
+        setCacheable(true);
     }
 }
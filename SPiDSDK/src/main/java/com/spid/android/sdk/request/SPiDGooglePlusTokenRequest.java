@@ -4,7 +4,7 @@ import com.spid.android.sdk.SPiDClient;
 import com.spid.android.sdk.configuration.SPiDConfiguration;
 import com.spid.android.sdk.configuration.TokenType;
 import com.spid.android.sdk.exceptions.SPiDException;
-import com.spid.android.sdk.jwt.SPiDJwt;
+import com.spid.android.sdk.jwt.SPiDJwtAssertionCache;
 import com.spid.android.sdk.jwt.SubjectClaim;
 import com.spid.android.sdk.listener.SPiDAuthorizationListener;
 
@@ -27,11 +27,11 @@ public class SPiDGooglePlusTokenRequest extends SPiDTokenRequest {
 
         Date expirationDate = getOneHourInTheFuture();
         SPiDConfiguration config = SPiDClient.getInstance().getConfig();
-        SPiDJwt jwt = new SPiDJwt(packageId, SubjectClaim.AUTHORIZATION, config.getTokenURL(), expirationDate, TokenType.GOOGLE_PLUS, googlePlusToken);
         this.addBodyParameter("client_id", config.getClientID());
         this.addBodyParameter("client_secret", config.getClientSecret());
         this.addBodyParameter("grant_type", "urn:ietf:params:oauth:grant-type:jwt-bearer");
-        this.addBodyParameter("assertion", jwt.encodedJwtString());
+        this.addBodyParameter("assertion", SPiDJwtAssertionCache.getInstance().getAssertion(packageId, SubjectClaim.AUTHORIZATION,
+                config.getTokenURL(), expirationDate, TokenType.GOOGLE_PLUS, googlePlusToken));
     }
 
     /**
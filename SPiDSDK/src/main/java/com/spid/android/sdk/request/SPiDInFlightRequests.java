@@ -0,0 +1,154 @@
+package com.spid.android.sdk.request;
+
+import com.spid.android.sdk.listener.SPiDRequestListener;
+import com.spid.android.sdk.response.SPiDResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps track of the GET requests in flight, a request that is identical to one in flight joins it instead of being
+ * sent and its listener is called with the outcome of the request in flight. All listeners of a request in flight
+ * get the same <code>SPiDResponse</code> instance, listeners must not modify it or the <code>JSONObject</code> it
+ * returns.
+ */
+public class SPiDInFlightRequests {
+
+    private final ConcurrentMap<String, Attempt> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Joins the attempt in flight for the key, or makes the attempt the one in flight if there is none. An attempt
+     * in flight that finishes while it is being joined is not joined, the joining attempt is sent instead.
+     *
+     * @param key      Key of the request, identical requests have the same key
+     * @param attempt  The attempt about to be sent
+     * @param listener Listener of the attempt, can be <code>null</code>
+     * @return <code>true</code> if the attempt joined the attempt in flight and should not be sent
+     */
+    public boolean join(String key, Attempt attempt, SPiDRequestListener listener) {
+        List<SPiDRequestListener> joining = new ArrayList<>();
+        if (listener != null) {
+            joining.add(listener);
+        }
+        List<SPiDRequestListener> carried = attempt.followers.get();
+        if (carried != null) {
+            joining.addAll(carried);
+        }
+        while (true) {
+            Attempt current = inFlight.putIfAbsent(key, attempt);
+            if (current == null) {
+                attempt.key = key;
+                return false;
+            }
+            if (current.addFollowers(joining)) {
+                attempt.followers.set(null);
+                return true;
+            }
+            // The attempt in flight finished while we were joining it
+            inFlight.remove(key, current);
+        }
+    }
+
+    /**
+     * Ends the attempt so that new identical requests are sent again
+     *
+     * @param attempt The attempt
+     * @return The listeners of attempts that joined the attempt, empty if it has already finished
+     */
+    public List<SPiDRequestListener> finish(Attempt attempt) {
+        if (attempt.key != null) {
+            inFlight.remove(attempt.key, attempt);
+        }
+        List<SPiDRequestListener> followers = attempt.followers.getAndSet(null);
+        return followers != null ? followers : Collections.<SPiDRequestListener>emptyList();
+    }
+
+    /**
+     * Ends the attempt and calls the listener followed by the listeners of attempts that joined it
+     *
+     * @param attempt  The attempt
+     * @param listener Listener of the attempt, can be <code>null</code>
+     * @param response The response, shared by all listeners
+     */
+    public void notifyComplete(Attempt attempt, SPiDRequestListener listener, SPiDResponse response) {
+        for (SPiDRequestListener requestListener : getListeners(attempt, listener)) {
+            requestListener.onComplete(response);
+        }
+    }
+
+    /**
+     * Ends the attempt and calls the listener followed by the listeners of attempts that joined it
+     *
+     * @param attempt   The attempt
+     * @param listener  Listener of the attempt, can be <code>null</code>
+     * @param exception The error
+     */
+    public void notifyError(Attempt attempt, SPiDRequestListener listener, Exception exception) {
+        for (SPiDRequestListener requestListener : getListeners(attempt, listener)) {
+            requestListener.onError(exception);
+        }
+    }
+
+    /**
+     * @return The number of attempts in flight
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    private List<SPiDRequestListener> getListeners(Attempt attempt, SPiDRequestListener listener) {
+        List<SPiDRequestListener> listeners = new ArrayList<>();
+        if (listener != null) {
+            listeners.add(listener);
+        }
+        listeners.addAll(finish(attempt));
+        return listeners;
+    }
+
+    /**
+     * One attempt of a request, a retry or a resend of a cancelled request is a new attempt that carries over the
+     * listeners that joined the previous attempt
+     */
+    public static class Attempt {
+        private final AtomicReference<List<SPiDRequestListener>> followers;
+        private String key;
+
+        /**
+         * Creates an Attempt without listeners that joined it
+         */
+        public Attempt() {
+            this(Collections.<SPiDRequestListener>emptyList());
+        }
+
+        /**
+         * Creates an Attempt
+         *
+         * @param followers Listeners carried over from a previous attempt
+         */
+        public Attempt(List<SPiDRequestListener> followers) {
+            this.followers = new AtomicReference<>(followers);
+        }
+
+        /**
+         * @param listeners Listeners to notify when this attempt finishes
+         * @return <code>true</code> if the listeners were attached, <code>false</code> if the attempt has already finished
+         */
+        private boolean addFollowers(List<SPiDRequestListener> listeners) {
+            while (true) {
+                List<SPiDRequestListener> current = followers.get();
+                if (current == null) {
+                    return false;
+                }
+                List<SPiDRequestListener> updated = new ArrayList<>(current);
+                updated.addAll(listeners);
+                if (followers.compareAndSet(current, updated)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
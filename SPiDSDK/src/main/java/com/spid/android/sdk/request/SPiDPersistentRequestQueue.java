@@ -0,0 +1,304 @@
+package com.spid.android.sdk.request;
+
+import com.spid.android.sdk.keychain.SPiDFileTokenStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Durable queue for requests that must survive the process, e.g. a POST waiting for a token refresh or for
+ * connectivity. Entries are kept in the order they were added until the server has answered them or they have been
+ * replayed the maximum number of times, the access token is never stored.
+ */
+public class SPiDPersistentRequestQueue {
+
+    private static final int VERSION = 1;
+    private static final int DEFAULT_MAX_REPLAYS = 5;
+
+    private final SPiDFileTokenStore store;
+    private final Executor diskExecutor;
+    private final int maxReplays;
+
+    private LinkedHashMap<String, Entry> entries;
+    private final Set<String> active = new HashSet<>();
+
+    /**
+     * Constructor for SPiDPersistentRequestQueue
+     *
+     * @param file         File holding the queue
+     * @param diskExecutor Executor for disk writes
+     */
+    public SPiDPersistentRequestQueue(File file, Executor diskExecutor) {
+        this(file, diskExecutor, DEFAULT_MAX_REPLAYS);
+    }
+
+    /**
+     * Constructor for SPiDPersistentRequestQueue
+     *
+     * @param file         File holding the queue
+     * @param diskExecutor Executor for disk writes
+     * @param maxReplays   Number of times an entry is replayed, an entry that has been replayed this often without
+     *                     an answer is dropped instead
+     */
+    public SPiDPersistentRequestQueue(File file, Executor diskExecutor, int maxReplays) {
+        this.store = new SPiDFileTokenStore(file);
+        this.diskExecutor = diskExecutor;
+        this.maxReplays = maxReplays;
+    }
+
+    /**
+     * Adds an entry that is about to be sent by this process
+     *
+     * @param entry The entry
+     */
+    public synchronized void add(Entry entry) {
+        getEntries().put(entry.getId(), entry);
+        active.add(entry.getId());
+        scheduleWrite();
+    }
+
+    /**
+     * Removes an entry after the server has answered it
+     *
+     * @param id The idempotency key of the entry
+     */
+    public synchronized void remove(String id) {
+        active.remove(id);
+        if (getEntries().remove(id) != null) {
+            scheduleWrite();
+        }
+    }
+
+    /**
+     * Makes an entry available for replay, used when the request could not reach the server
+     *
+     * @param id The idempotency key of the entry
+     */
+    public synchronized void release(String id) {
+        active.remove(id);
+    }
+
+    /**
+     * Returns the entries that are not being sent by this process and marks them as being sent. The replay count of
+     * the entries is increased and stored before they are returned, entries that have reached the maximum number of
+     * replays are removed instead of returned.
+     *
+     * @return The entries in the order they were added
+     */
+    public synchronized List<Entry> takeReplayable() {
+        List<Entry> replayable = new ArrayList<>();
+        boolean changed = false;
+        Iterator<Map.Entry<String, Entry>> iterator = getEntries().entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> stored = iterator.next();
+            if (active.contains(stored.getKey())) {
+                continue;
+            }
+            changed = true;
+            Entry entry = stored.getValue();
+            if (entry.getRetryCount() >= maxReplays) {
+                iterator.remove();
+                continue;
+            }
+            Entry replayed = entry.replayed();
+            stored.setValue(replayed);
+            active.add(replayed.getId());
+            replayable.add(replayed);
+        }
+        if (changed) {
+            // Stored first so that a replay that never completes, e.g. because the process dies, is still counted
+            scheduleWrite();
+        }
+        return replayable;
+    }
+
+    /**
+     * @return Number of entries in the queue
+     */
+    public synchronized int size() {
+        return getEntries().size();
+    }
+
+    /**
+     * Removes all entries
+     */
+    public synchronized void clear() {
+        entries = new LinkedHashMap<>();
+        active.clear();
+        scheduleWrite();
+    }
+
+    private LinkedHashMap<String, Entry> getEntries() {
+        if (entries == null) {
+            entries = new LinkedHashMap<>();
+            try {
+                byte[] bytes = store.load();
+                if (bytes != null) {
+                    for (Entry entry : decode(bytes)) {
+                        entries.put(entry.getId(), entry);
+                    }
+                }
+            } catch (IOException e) {
+                // A corrupt queue is dropped, the entries carry idempotency keys but cannot be recovered
+            }
+        }
+        return entries;
+    }
+
+    private void scheduleWrite() {
+        final byte[] bytes = encode(new ArrayList<>(entries.values()));
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    store.save(bytes);
+                } catch (IOException e) {
+                    // The queue is written again on the next change
+                }
+            }
+        });
+    }
+
+    private static byte[] encode(List<Entry> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            output.writeByte(VERSION);
+            output.writeInt(entries.size());
+            for (Entry entry : entries) {
+                output.writeUTF(entry.id);
+                output.writeUTF(entry.method);
+                output.writeUTF(entry.url);
+                writeMap(output, entry.headers);
+                writeMap(output, entry.query);
+                writeMap(output, entry.body);
+                output.writeInt(entry.retryCount);
+            }
+            output.flush();
+        } catch (IOException e) {
+            // Shouldn't be possible writing to memory...
+            throw new IllegalStateException("Could not encode request queue", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Entry> decode(byte[] bytes) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        int version = input.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported request queue version " + version);
+        }
+        int count = input.readInt();
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = input.readUTF();
+            String method = input.readUTF();
+            String url = input.readUTF();
+            Map<String, String> headers = readMap(input);
+            Map<String, String> query = readMap(input);
+            Map<String, String> body = readMap(input);
+            entries.add(new Entry(id, method, url, headers, query, body, input.readInt()));
+        }
+        return entries;
+    }
+
+    private static void writeMap(DataOutputStream output, Map<String, String> map) throws IOException {
+        output.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeBoolean(entry.getValue() != null);
+            if (entry.getValue() != null) {
+                output.writeUTF(entry.getValue());
+            }
+        }
+    }
+
+    private static Map<String, String> readMap(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = input.readUTF();
+            map.put(key, input.readBoolean() ? input.readUTF() : null);
+        }
+        return map;
+    }
+
+    /**
+     * A stored request
+     */
+    public static class Entry {
+        private final String id;
+        private final String method;
+        private final String url;
+        private final Map<String, String> headers;
+        private final Map<String, String> query;
+        private final Map<String, String> body;
+        private final int retryCount;
+
+        /**
+         * Constructor for Entry
+         *
+         * @param id         The idempotency key of the request
+         * @param method     The http method
+         * @param url        The request url
+         * @param headers    The http headers
+         * @param query      The query parameters without the access token
+         * @param body       The body parameters without the access token
+         * @param retryCount Number of times the request has been replayed, including a replay that is being sent
+         */
+        public Entry(String id, String method, String url, Map<String, String> headers, Map<String, String> query,
+                     Map<String, String> body, int retryCount) {
+            this.id = id;
+            this.method = method;
+            this.url = url;
+            this.headers = headers;
+            this.query = query;
+            this.body = body;
+            this.retryCount = retryCount;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public Map<String, String> getQuery() {
+            return query;
+        }
+
+        public Map<String, String> getBody() {
+            return body;
+        }
+
+        public int getRetryCount() {
+            return retryCount;
+        }
+
+        private Entry replayed() {
+            return new Entry(id, method, url, headers, query, body, retryCount + 1);
+        }
+    }
+}
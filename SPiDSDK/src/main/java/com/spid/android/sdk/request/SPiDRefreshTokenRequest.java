@@ -26,4 +26,11 @@ public class SPiDRefreshTokenRequest extends SPiDTokenRequest {
         this.addBodyParameter("refresh_token", accessToken != null ? accessToken.getRefreshToken() : null);
         this.addBodyParameter("redirect_uri", config.getRedirectURL() + "login");
     }
+
+    /**
+     * Refresh requests are tracked by <code>SPiDClient</code> and never own the current authorization request
+     */
+    @Override
+    protected void clearAuthorizationRequest() {
+    }
 }
@@ -1,43 +1,61 @@
 package com.spid.android.sdk.request;
 
-import android.net.http.AndroidHttpClient;
 import android.os.AsyncTask;
+import android.os.Build;
+import android.os.SystemClock;
 
 import com.spid.android.sdk.SPiDClient;
 import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreaker;
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreakers;
+import com.spid.android.sdk.cache.SPiDCacheEntry;
+import com.spid.android.sdk.cache.SPiDResponseCache;
+import com.spid.android.sdk.exceptions.SPiDCircuitOpenException;
 import com.spid.android.sdk.exceptions.SPiDException;
+import com.spid.android.sdk.exceptions.SPiDRateLimitException;
+import com.spid.android.sdk.http.SPiDHttpRequest;
+import com.spid.android.sdk.http.SPiDHttpResponse;
+import com.spid.android.sdk.listener.SPiDAuthorizationListener;
+import com.spid.android.sdk.listener.SPiDQueuedRequestListener;
 import com.spid.android.sdk.listener.SPiDRequestListener;
 import com.spid.android.sdk.logger.SPiDLogger;
+import com.spid.android.sdk.ratelimit.SPiDRateLimiter;
 import com.spid.android.sdk.response.SPiDResponse;
+import com.spid.android.sdk.retry.SPiDRetryPolicy;
+import com.spid.android.sdk.utils.SPiDUrl;
 
-import org.apache.http.Header;
-import org.apache.http.HttpResponse;
-import org.apache.http.NameValuePair;
-import org.apache.http.client.entity.UrlEncodedFormEntity;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.client.params.HttpClientParams;
-import org.apache.http.message.BasicHeader;
-import org.apache.http.message.BasicNameValuePair;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
 
 /**
- * Contains a request to SPiD, note that each request can only be used once since it extends <code>AsyncTask</code>
+ * Contains a request to SPiD, note that each request can only be used once since it extends <code>AsyncTask</code>.
+ * A GET request that is identical to one already in flight is not sent, its listener gets the response of the
+ * request in flight instead, all listeners get the same <code>SPiDResponse</code> and must not modify it. A request
+ * can be cancelled directly or through its tags, a cancelled request never
+ * calls its listener.
  */
 public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
 
     public static final String GET = "GET";
     public static final String POST = "POST";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     private static final Integer DEFAULT_MAX_RETRY_COUNT = 0;
+
+    private static final SPiDInFlightRequests IN_FLIGHT = new SPiDInFlightRequests();
+    private static final Random JITTER = new Random();
+
     private final String method;
 
     protected final SPiDRequestListener listener;
@@ -49,6 +67,17 @@ public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
     private Map<String, String> body;
     private Integer retryCount;
     private Integer maxRetryCount;
+    private boolean leanResponse;
+    private boolean cacheable;
+    private boolean durable;
+    private SPiDRetryPolicy retryPolicy;
+    private SPiDRequestPriority priority = SPiDRequestPriority.INTERACTIVE;
+    private int attempts;
+    private long firstAttemptAt;
+    private String idempotencyKey;
+    private SPiDRequestHandle handle;
+    private boolean abandoned;
+    private SPiDInFlightRequests.Attempt inFlightAttempt = new SPiDInFlightRequests.Attempt();
 
     /**
      * Constructor for the SPiDRequest
@@ -70,6 +99,9 @@ public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
         this.retryCount = 0;
         this.maxRetryCount = DEFAULT_MAX_RETRY_COUNT;
 
+        this.handle = new SPiDRequestHandle();
+        handle.attach(this);
+
         SPiDLogger.log("Created request: " + url);
     }
 
@@ -125,6 +157,9 @@ public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
      * @return The encoded string
      */
     private String encodeURLParameter(String key, String value) {
+        if (value == null) {
+            value = "";
+        }
         try {
             return String.format("%s=%s", URLEncoder.encode(key, "UTF-8"), URLEncoder.encode(value, "UTF-8"));
         } catch (UnsupportedEncodingException e) {
@@ -149,20 +184,64 @@ public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
         return builder.toString();
     }
 
+    /**
+     * Generates the form encoded body
+     *
+     * @return The body
+     */
+    private String getBodyAsString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> entry : body.entrySet()) {
+            if (builder.length() > 0)
+                builder.append('&');
+            builder.append(encodeURLParameter(entry.getKey(), entry.getValue()));
+        }
+        return builder.toString();
+    }
+
     /**
      * Creates a copy of the <code>SPiDRequest</code>, this is used since AsyncTask can only be used once
      *
+     * @param listener The listener of the copy, can be <code>null</code>
+     * @param handle   The handle of the copy, the copy becomes its current attempt
      * @return A copy of the <code>SPiDRequest</code>
      */
-    private SPiDRequest copy() {
+    private SPiDRequest copy(SPiDRequestListener listener, SPiDRequestHandle handle) {
         SPiDRequest request = new SPiDRequest(method, url, listener);
+        request.handle = handle;
+        handle.attach(request);
         request.setRetryCount(retryCount);
+        request.setMaxRetryCount(maxRetryCount);
+        request.setLeanResponse(leanResponse);
+        request.setCacheable(cacheable);
+        request.durable = durable;
+        request.idempotencyKey = idempotencyKey;
+        request.retryPolicy = retryPolicy;
+        request.priority = priority;
+        request.attempts = attempts;
+        request.firstAttemptAt = firstAttemptAt;
         request.setHeaders(headers);
         request.setQuery(query);
         request.setBody(body);
         return request;
     }
 
+    /**
+     * Recreates a request stored in the persistent request queue, the request has no listener
+     *
+     * @param entry The stored request
+     * @return The request
+     */
+    public static SPiDRequest fromPersisted(SPiDPersistentRequestQueue.Entry entry) {
+        SPiDRequest request = new SPiDRequest(entry.getMethod(), entry.getUrl(), null);
+        request.durable = true;
+        request.idempotencyKey = entry.getId();
+        request.setHeaders(new HashMap<>(entry.getHeaders()));
+        request.setQuery(new HashMap<>(entry.getQuery()));
+        request.setBody(new HashMap<>(entry.getBody()));
+        return request;
+    }
+
     /**
      * @param headers The http headers
      */
@@ -188,52 +267,195 @@ public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
      * Runs the request and receives a response in a background thread.
      *
      * @param voids Unused parameter required by <code>AsyncTask</code>
-     * @return A <code>SPiDResponse</code>
+     * @return A <code>SPiDResponse</code>, <code>null</code> if the request was cancelled
      */
     @Override
     protected SPiDResponse doInBackground(Void... voids) {
-        AndroidHttpClient httpClient = null;
+        SPiDHttpRequest httpRequest = null;
+        SPiDHttpResponse httpResponse = null;
+        SPiDCircuitBreaker breaker = null;
         try {
-            HttpRequestBase httpRequest;
-            if (POST.equalsIgnoreCase(method)) {
-                httpRequest = new HttpPost(url);
+            // Add custom User-Agent
+            headers.put("User-Agent", SPiDClient.getInstance().getConfig().getUserAgent());
 
-                List<NameValuePair> postList = new ArrayList<>();
-                for (Map.Entry<String, String> entry : body.entrySet()) {
-                    postList.add(new BasicNameValuePair(entry.getKey(), entry.getValue()));
-                }
+            SPiDResponseCache cache = SPiDClient.getInstance().getResponseCache();
+            String cacheKey = cache != null ? getCacheKey() : null;
+            SPiDCacheEntry cached = cacheKey != null ? cache.get(cacheKey) : null;
+            long now = System.currentTimeMillis();
+            if (cached != null && cached.isFresh(now)) {
+                SPiDLogger.log("Using cached response for: " + url);
+                return createResponse(cached);
+            }
 
-                ((HttpPost) httpRequest).setEntity(new UrlEncodedFormEntity(postList, "UTF-8"));
+            if (POST.equalsIgnoreCase(method)) {
+                httpRequest = new SPiDHttpRequest(POST, url, headers, getBodyAsString().getBytes("UTF-8"));
             } else {
-                httpRequest = new HttpGet(url + getQueryAsString());
+                httpRequest = new SPiDHttpRequest(GET, url + getQueryAsString(), getConditionalHeaders(cached), null);
             }
-
-            // Add custom User-Agent
-            headers.put("User-Agent", SPiDClient.getInstance().getConfig().getUserAgent());
-
-            List<Header> headerList = new ArrayList<>();
-            for (Map.Entry<String, String> entry : headers.entrySet()) {
-                headerList.add(new BasicHeader(entry.getKey(), entry.getValue()));
+            if (!handle.beginSend(httpRequest)) {
+                return null;
             }
 
-            Header[] headerArray = new Header[headerList.size()];
-            httpRequest.setHeaders(headerList.toArray(headerArray));
+            // An open breaker rejects the request before it uses up rate limiter capacity
+            SPiDCircuitBreakers breakers = SPiDClient.getInstance().getCircuitBreakers();
+            if (breakers != null) {
+                breaker = breakers.get(url);
+                if (!breaker.allowRequest(System.currentTimeMillis())) {
+                    return new SPiDResponse(new SPiDCircuitOpenException(breaker.getEndpoint()));
+                }
+            }
 
-            HttpClientParams.setRedirecting(httpRequest.getParams(), false);
+            SPiDRateLimiter rateLimiter = SPiDClient.getInstance().getRateLimiter();
+            if (rateLimiter != null) {
+                long wait = rateLimiter.acquire(url, System.currentTimeMillis());
+                if (wait > 0) {
+                    if (breaker != null) {
+                        // Not sent, a half-open breaker gets its probe slot back
+                        breaker.onCancelled();
+                    }
+                    return new SPiDResponse(new SPiDRateLimitException(SPiDUrl.getEndpoint(url), wait));
+                }
+            }
 
-            httpClient = AndroidHttpClient.newInstance(SPiDClient.getInstance().getConfig().getUserAgent());
-            HttpResponse httpResponse = httpClient.execute(httpRequest);
+            try {
+                httpResponse = SPiDClient.getInstance().getHttpTransport().execute(httpRequest);
+            } catch (IOException | RuntimeException e) {
+                // Every request let through must be recorded, a half-open breaker only lets a few through
+                if (breaker != null) {
+                    recordFailure(breaker, httpRequest);
+                }
+                throw e;
+            }
+            if (rateLimiter != null) {
+                rateLimiter.onResponse(url, httpResponse.getCode(), httpResponse.getHeader("Retry-After"), System.currentTimeMillis());
+            }
 
-            return new SPiDResponse(httpResponse);
+            SPiDResponse response;
+            try {
+                response = readResponse(httpRequest, httpResponse, cache, cacheKey, cached, now);
+            } catch (IOException | RuntimeException e) {
+                if (breaker != null) {
+                    recordFailure(breaker, httpRequest);
+                }
+                throw e;
+            }
+            if (breaker != null) {
+                // A body that could not be read counts as a failure even if the status was fine
+                boolean bodyFailed = response != null && response.getException() instanceof IOException;
+                if (bodyFailed || httpResponse.getCode() >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                    recordFailure(breaker, httpRequest);
+                } else {
+                    breaker.onSuccess(System.currentTimeMillis());
+                }
+            }
+            return response;
         } catch (IOException e) {
             return new SPiDResponse(e);
         } catch (Exception e) {
             return new SPiDResponse(e);
         } finally {
-            if (httpClient != null) {
-                httpClient.close();
+            if (httpResponse != null) {
+                httpResponse.close();
+            }
+            if (httpRequest != null) {
+                handle.endSend(httpRequest);
+            }
+        }
+    }
+
+    /**
+     * Reads the body of the response and updates the response cache
+     *
+     * @param httpRequest  The http request
+     * @param httpResponse The http response
+     * @param cache        The response cache, can be <code>null</code>
+     * @param cacheKey     The response cache key, <code>null</code> if the response should not be cached
+     * @param cached       The cached entry, can be <code>null</code>
+     * @param now          Time the request was started
+     * @return The response, <code>null</code> if the request was cancelled
+     * @throws IOException If the body could not be read
+     */
+    private SPiDResponse readResponse(SPiDHttpRequest httpRequest, SPiDHttpResponse httpResponse, SPiDResponseCache cache,
+                                      String cacheKey, SPiDCacheEntry cached, long now) throws IOException {
+        if (httpRequest.isAborted()) {
+            // Cancelled while waiting for the response, the body is neither read nor parsed
+            return null;
+        }
+
+        if (cacheKey != null) {
+            if (cached != null && httpResponse.getCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                SPiDCacheEntry revalidated = cached.revalidated(httpResponse.getHeaders(), now);
+                cache.put(cacheKey, revalidated);
+                return createResponse(revalidated);
             }
+            if (httpResponse.getCode() == HttpURLConnection.HTTP_OK) {
+                byte[] content = httpResponse.readContent();
+                SPiDResponse response = new SPiDResponse(new SPiDHttpResponse(httpResponse.getCode(),
+                        httpResponse.getHeaders(), new ByteArrayInputStream(content)), leanResponse);
+                SPiDCacheEntry entry = SPiDCacheEntry.fromResponse(httpResponse.getCode(), httpResponse.getHeaders(), content, now);
+                if (response.getException() == null && entry != null) {
+                    cache.put(cacheKey, entry);
+                }
+                return response;
+            }
+        }
+
+        return new SPiDResponse(httpResponse, leanResponse);
+    }
+
+    /**
+     * Records a request that got no usable response, a request aborted by a cancel is not held against the endpoint
+     *
+     * @param breaker     The circuit breaker of the endpoint
+     * @param httpRequest The http request
+     */
+    private static void recordFailure(SPiDCircuitBreaker breaker, SPiDHttpRequest httpRequest) {
+        if (httpRequest.isAborted()) {
+            breaker.onCancelled();
+        } else {
+            breaker.onFailure(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @return The response cache key, <code>null</code> if the response should not be cached
+     */
+    private String getCacheKey() {
+        if (!cacheable || !GET.equals(method) || url.contains(SPiDClient.OAUTH_TOKEN)) {
+            return null;
+        }
+        SPiDAccessToken accessToken = SPiDClient.getInstance().getAccessToken();
+        if (accessToken == null) {
+            return null;
         }
+        return SPiDResponseCache.createKey(url, query, accessToken.getUserID());
+    }
+
+    /**
+     * @param cached The cached entry, can be <code>null</code>
+     * @return The request headers with validators for the cached entry
+     */
+    private Map<String, String> getConditionalHeaders(SPiDCacheEntry cached) {
+        if (cached == null || (cached.getEtag() == null && cached.getLastModified() == null)) {
+            return headers;
+        }
+        Map<String, String> conditionalHeaders = new HashMap<>(headers);
+        if (cached.getEtag() != null) {
+            conditionalHeaders.put("If-None-Match", cached.getEtag());
+        }
+        if (cached.getLastModified() != null) {
+            conditionalHeaders.put("If-Modified-Since", cached.getLastModified());
+        }
+        return conditionalHeaders;
+    }
+
+    private SPiDResponse createResponse(SPiDCacheEntry entry) {
+        Map<String, String> responseHeaders = new HashMap<>();
+        if (entry.getContentType() != null) {
+            responseHeaders.put("Content-Type", entry.getContentType());
+        }
+        return new SPiDResponse(new SPiDHttpResponse(entry.getCode(), responseHeaders,
+                new ByteArrayInputStream(entry.getBody())), leanResponse);
     }
 
     /**
@@ -244,7 +466,98 @@ public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
     @Override
     protected void onPostExecute(SPiDResponse response) {
         super.onPostExecute(response);
+        if (handle.isCancelled()) {
+            // Cancelled from another thread after the response was read
+            abandon();
+            return;
+        }
         doOnPostExecute(response);
+        finish();
+    }
+
+    /**
+     * Runs on the UI thread instead of onPostExecute when the <code>AsyncTask</code> has been cancelled, also when
+     * <code>cancel(boolean)</code> was called on it directly
+     */
+    @Override
+    protected void onCancelled() {
+        super.onCancelled();
+        handle.cancel();
+        abandon();
+    }
+
+    /**
+     * Called on the UI thread when the request has been cancelled, the listener is not called
+     */
+    protected void doOnCancelled() {
+    }
+
+    /**
+     * Drops this attempt of a cancelled request, requests that joined it are sent again without it
+     */
+    void abandon() {
+        if (abandoned) {
+            return;
+        }
+        abandoned = true;
+        cancel(false);
+        SPiDClient.getInstance().removeWaitingRequest(this);
+        finishPersisted(true);
+        handOff(finishInFlight());
+        unregister(handle);
+        SPiDLogger.log("Cancelled request: " + url);
+        doOnCancelled();
+    }
+
+    /**
+     * Sends a cancelled request again for the requests that joined it and have not been cancelled themselves. The
+     * resend has the tags of those requests, so cancelling a tag also cancels the resend, which is then handed off
+     * to the requests that are still waiting.
+     *
+     * @param joined Listeners of requests that joined the cancelled request
+     */
+    private void handOff(List<SPiDRequestListener> joined) {
+        List<SPiDRequestListener> waiting = new ArrayList<>();
+        SPiDRequestHandle resendHandle = new SPiDRequestHandle();
+        for (SPiDRequestListener joinedListener : joined) {
+            if (!(joinedListener instanceof FollowerListener)) {
+                waiting.add(joinedListener);
+            } else if (!((FollowerListener) joinedListener).isCancelled()) {
+                waiting.add(joinedListener);
+                for (Object tag : ((FollowerListener) joinedListener).getTags()) {
+                    resendHandle.addTag(tag);
+                }
+            }
+        }
+        if (waiting.isEmpty()) {
+            return;
+        }
+        SPiDRequest request = copy(null, resendHandle);
+        request.inFlightAttempt = new SPiDInFlightRequests.Attempt(waiting);
+        request.execute();
+    }
+
+    /**
+     * Ends the request unless a retry took over
+     */
+    private void finish() {
+        if (handle.detach(this)) {
+            unregister(handle);
+        }
+    }
+
+    private static void register(SPiDRequestHandle handle) {
+        SPiDRequestRegistry registry = SPiDClient.getInstance().getRequestRegistry();
+        if (registry != null) {
+            registry.register(handle);
+        }
+    }
+
+    private static void unregister(SPiDRequestHandle handle) {
+        SPiDRequestRegistry registry = SPiDClient.getInstance().getRequestRegistry();
+        if (registry != null) {
+            registry.unregister(handle);
+        }
     }
 
     /**
@@ -253,50 +566,275 @@ public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
      * @param response The <code>SPiDResponse</code> created in doInBackground
      */
     protected void doOnPostExecute(SPiDResponse response) {
+        if (retryAfterFailure(response)) {
+            return;
+        }
         Exception exception = response.getException();
         if (exception != null) {
-            if (exception instanceof IOException) {
-                listener.onError(exception);
+            if (exception instanceof IOException || response.getCode() >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                failUnsent(exception);
             } else if (exception instanceof SPiDException) {
                 String error = ((SPiDException) exception).getError();
                 if (SPiDException.EXPIRED_TOKEN.equals(error) || SPiDException.INVALID_TOKEN.equals(error)) {
                     if (retryCount < maxRetryCount) {
-                        SPiDRequest request = this.copy();
+                        SPiDRequest request = copy(listener, handle);
                         request.increaseRetryCount();
+                        // Requests that joined this request wait for the retry
+                        request.inFlightAttempt = new SPiDInFlightRequests.Attempt(finishInFlight());
                         SPiDClient.getInstance().addWaitingRequest(request);
-                        SPiDClient.getInstance().refreshAccessToken(null);
+                        SPiDClient.getInstance().refreshAccessToken(new RetryListener(request));
                         SPiDLogger.log("Retrying attempt: " + request.retryCount + " for request: " + request.url);
                     } else {
                         SPiDClient.getInstance().clearAccessToken();
-                        listener.onError(exception);
+                        finishPersisted(true);
+                        notifyError(exception);
                     }
                 } else {
-                    listener.onError(exception);
+                    finishPersisted(true);
+                    notifyError(exception);
                 }
             } else {
-                listener.onError(exception);
+                finishPersisted(true);
+                notifyError(exception);
             }
         } else {
-            listener.onComplete(response);
+            finishPersisted(true);
+            notifyComplete(response);
+        }
+    }
+
+    /**
+     * Retries a request that failed without an answer from SPiD or with a 429 or 5xx response after a backoff delay,
+     * at least as long as any Retry-After, if the request is idempotent and the retry policy allows another attempt
+     *
+     * @param response The <code>SPiDResponse</code> created in doInBackground
+     * @return <code>true</code> if a retry was scheduled
+     */
+    private boolean retryAfterFailure(SPiDResponse response) {
+        boolean transientFailure = response.getException() instanceof IOException
+                || response.getCode() == SPiDRateLimiter.HTTP_TOO_MANY_REQUESTS
+                || response.getCode() >= HttpURLConnection.HTTP_INTERNAL_ERROR;
+        if (!transientFailure || !isIdempotent()) {
+            return false;
+        }
+        SPiDRetryPolicy policy = getRetryPolicy();
+        long delay = policy.getDelay(attempts, JITTER);
+        SPiDRateLimiter rateLimiter = SPiDClient.getInstance().getRateLimiter();
+        if (rateLimiter != null) {
+            delay = Math.max(delay, rateLimiter.getPauseRemaining(url, System.currentTimeMillis()));
+        }
+        if (!policy.canRetry(attempts, SystemClock.elapsedRealtime() - firstAttemptAt, delay)) {
+            return false;
+        }
+        final SPiDRequest request = copy(listener, handle);
+        // Requests that joined this request wait for the retry
+        request.inFlightAttempt = new SPiDInFlightRequests.Attempt(finishInFlight());
+        SPiDLogger.log("Retrying attempt: " + (attempts + 1) + " in " + delay + " ms for request: " + url);
+        SPiDClient.getInstance().getRetryScheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                request.execute();
+            }
+        }, delay);
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if sending the request twice has the same effect as sending it once
+     */
+    private boolean isIdempotent() {
+        return GET.equals(method) || headers.containsKey(IDEMPOTENCY_KEY_HEADER);
+    }
+
+    /**
+     * @return The retry policy of the request, or the configured retry policy
+     */
+    private SPiDRetryPolicy getRetryPolicy() {
+        if (retryPolicy != null) {
+            return retryPolicy;
+        }
+        SPiDRetryPolicy configured = SPiDClient.getInstance().getConfig().getRetryPolicy();
+        return configured != null ? configured : SPiDRetryPolicy.NONE;
+    }
+
+    /**
+     * Stores a durable request in the persistent request queue together with a new idempotency key, the key is sent
+     * with every attempt so that a replay cannot be applied twice
+     */
+    private void persist() {
+        if (!durable || idempotencyKey != null) {
+            return;
+        }
+        SPiDPersistentRequestQueue queue = SPiDClient.getInstance().getPersistentRequestQueue();
+        if (queue == null) {
+            return;
+        }
+        idempotencyKey = UUID.randomUUID().toString();
+        headers.put(IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        queue.add(new SPiDPersistentRequestQueue.Entry(idempotencyKey, method, url, new HashMap<>(headers),
+                withoutAccessToken(query), withoutAccessToken(body), 0));
+    }
+
+    /**
+     * Ends a request that failed in transport or with a 5xx response. A durable request stays stored for replay
+     * unless its listener would be told that it failed, the listener is then called with <code>onQueued</code>
+     * instead of <code>onError</code>. Otherwise the stored request is removed before the error is reported, so that
+     * a request the application sends again is not also replayed.
+     *
+     * @param exception The error
+     */
+    private void failUnsent(Exception exception) {
+        SPiDPersistentRequestQueue queue = SPiDClient.getInstance().getPersistentRequestQueue();
+        SPiDRequestListener activeListener = getActiveListener();
+        if (idempotencyKey == null || queue == null
+                || (activeListener != null && !(activeListener instanceof SPiDQueuedRequestListener))) {
+            finishPersisted(true);
+            notifyError(exception);
+            return;
+        }
+        // The request is replayed when connectivity returns
+        finishPersisted(false);
+        IN_FLIGHT.notifyError(inFlightAttempt, null, exception);
+        if (activeListener != null) {
+            ((SPiDQueuedRequestListener) activeListener).onQueued(exception);
+        }
+    }
+
+    /**
+     * @param exception The error
+     * @return <code>true</code> if the error is a 5xx error from SPiD
+     */
+    private static boolean isServerError(Exception exception) {
+        if (!(exception instanceof SPiDException)) {
+            return false;
+        }
+        Integer code = ((SPiDException) exception).getErrorCode();
+        return code != null && code >= HttpURLConnection.HTTP_INTERNAL_ERROR;
+    }
+
+    /**
+     * @param answered <code>true</code> if the server answered the request, <code>false</code> if it should be replayed
+     */
+    private void finishPersisted(boolean answered) {
+        SPiDPersistentRequestQueue queue = SPiDClient.getInstance().getPersistentRequestQueue();
+        if (idempotencyKey == null || queue == null) {
+            return;
+        }
+        if (answered) {
+            queue.remove(idempotencyKey);
+        } else {
+            queue.release(idempotencyKey);
         }
     }
 
+    private static Map<String, String> withoutAccessToken(Map<String, String> parameters) {
+        Map<String, String> copy = new HashMap<>(parameters);
+        copy.remove(SPiDClient.OAUTH_TOKEN);
+        return copy;
+    }
+
+    /**
+     * Calls the listener and the listeners of requests that joined this request
+     *
+     * @param response The response
+     */
+    protected void notifyComplete(SPiDResponse response) {
+        IN_FLIGHT.notifyComplete(inFlightAttempt, getActiveListener(), response);
+    }
+
     /**
-     * Execute request, can only be called once
+     * Calls the listener and the listeners of requests that joined this request
+     *
+     * @param exception The error
+     */
+    protected void notifyError(Exception exception) {
+        IN_FLIGHT.notifyError(inFlightAttempt, getActiveListener(), exception);
+    }
+
+    /**
+     * Joins an identical GET request that is in flight, or registers this request as in flight
+     *
+     * @return <code>true</code> if the request joined a request in flight and should not be sent
+     */
+    private boolean joinInFlight() {
+        if (!GET.equals(method)) {
+            return false;
+        }
+        SPiDAccessToken accessToken = SPiDClient.getInstance().getAccessToken();
+        // Lean responses have no body, so they only match other lean requests
+        String key = (leanResponse ? "lean:" : "") + SPiDResponseCache.createKey(url, query,
+                accessToken != null ? accessToken.getUserID() : null);
+        SPiDRequestListener follower = listener != null ? new FollowerListener(handle, listener) : null;
+        if (IN_FLIGHT.join(key, inFlightAttempt, follower)) {
+            SPiDLogger.log("Joined request in flight: " + url);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ends the request so that new identical requests are sent again
+     *
+     * @return The listeners of requests that joined this request
+     */
+    private List<SPiDRequestListener> finishInFlight() {
+        return IN_FLIGHT.finish(inFlightAttempt);
+    }
+
+    /**
+     * @return The listener of this request, <code>null</code> if there is none or the request has been cancelled
+     */
+    private SPiDRequestListener getActiveListener() {
+        return handle.isCancelled() ? null : listener;
+    }
+
+    /**
+     * Execute request on the SDK's request executor, can only be called once
      */
     public void execute() {
-        execute((Void) null);
+        if (handle.isCancelled()) {
+            abandon();
+            return;
+        }
+        register(handle);
+        persist();
+        if (joinInFlight()) {
+            return;
+        }
+        if (attempts++ == 0) {
+            firstAttemptAt = SystemClock.elapsedRealtime();
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            executeOnExecutor(SPiDClient.getInstance().getRequestExecutor().withPriority(priority), (Void) null);
+        } else {
+            // AsyncTask already runs in parallel on its own thread pool before Honeycomb
+            execute((Void) null);
+        }
     }
 
     /**
-     * Execute request authorized request, appends oauth token if needed
+     * Execute request authorized request, appends oauth token if needed. If the access token has expired or is about
+     * to expire the request waits for a token refresh before it is sent.
      */
     public void executeAuthorizedRequest() {
-        SPiDAccessToken accessToken = SPiDClient.getInstance().getAccessToken();
+        if (handle.isCancelled()) {
+            abandon();
+            return;
+        }
+        register(handle);
+        SPiDClient client = SPiDClient.getInstance();
+        SPiDAccessToken accessToken = client.getAccessToken();
+        persist();
+        if (shouldRefreshBeforeExecute(accessToken)) {
+            SPiDLogger.log("Access token expired, waiting for refresh before request: " + url);
+            client.addWaitingRequest(this);
+            client.refreshAccessToken(new RetryListener(this));
+            return;
+        }
+
         if (method.equals(GET)) {
             if (!url.contains(SPiDClient.OAUTH_TOKEN) && accessToken != null) {
-                url = url.contains("?") ? url + "&" : url + "?";
-                url = url + SPiDClient.OAUTH_TOKEN + "=" + accessToken.getAccessToken();
+                addQueryParameter(SPiDClient.OAUTH_TOKEN, accessToken.getAccessToken());
             }
         } else { // POST
             if (!body.containsKey(SPiDClient.OAUTH_TOKEN) && accessToken != null) {
@@ -306,6 +844,22 @@ public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
         execute();
     }
 
+    /**
+     * Checks if the access token would be rejected by SPiD and can be refreshed
+     *
+     * @param accessToken The current access token
+     * @return <code>true</code> if the request should wait for a token refresh
+     */
+    private boolean shouldRefreshBeforeExecute(SPiDAccessToken accessToken) {
+        if (accessToken == null || accessToken.getRefreshToken() == null) {
+            return false;
+        }
+        if (url.contains(SPiDClient.OAUTH_TOKEN) || body.containsKey(SPiDClient.OAUTH_TOKEN)) {
+            return false;
+        }
+        return accessToken.isExpiring(SPiDClient.getInstance().getConfig().getTokenExpiryMargin());
+    }
+
     /**
      * Maximum retry count for the request, used when token expires and the request needs to be retried after a new token has been obtained.
      *
@@ -315,6 +869,94 @@ public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
         this.maxRetryCount = maxRetryCount;
     }
 
+    /**
+     * Lean responses drop the body and headers of successful responses after error detection, use this when
+     * the listener does not read the response
+     *
+     * @param leanResponse <code>true</code> to drop the body and headers of successful responses
+     */
+    public void setLeanResponse(boolean leanResponse) {
+        this.leanResponse = leanResponse;
+    }
+
+    /**
+     * Durable requests are stored in the persistent request queue if it is enabled in the configuration, so that
+     * they are replayed if the process dies or the request cannot reach the server. Replayed requests have no
+     * listener. A request that cannot reach the server is only kept for replay if its listener is <code>null</code>
+     * or a {@link SPiDQueuedRequestListener}, other listeners get the error and the request is not replayed.
+     *
+     * @param durable <code>true</code> if the request should survive the process
+     */
+    public void setDurable(boolean durable) {
+        this.durable = durable;
+    }
+
+    /**
+     * Retry policy for requests that fail without an answer from SPiD or with a 429 or 5xx response, only GET requests and
+     * requests with an idempotency key are retried
+     *
+     * @param retryPolicy The retry policy, <code>null</code> uses the configured retry policy
+     */
+    public void setRetryPolicy(SPiDRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @return The dispatch priority of the request
+     */
+    public SPiDRequestPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Waiting requests are started in priority order, token requests are {@link SPiDRequestPriority#CRITICAL} and
+     * other requests {@link SPiDRequestPriority#INTERACTIVE} unless changed. Must be set before the request is executed.
+     *
+     * @param priority The dispatch priority
+     */
+    public void setPriority(SPiDRequestPriority priority) {
+        if (priority == null) {
+            throw new IllegalArgumentException("Priority must not be null");
+        }
+        this.priority = priority;
+    }
+
+    /**
+     * Tags the request so that it can be cancelled together with other requests, e.g. all requests of a screen, see
+     * {@link SPiDClient#cancelRequests(Object)}
+     *
+     * @param tag The tag
+     */
+    public void addTag(Object tag) {
+        handle.addTag(tag);
+    }
+
+    /**
+     * Cancels the request, the http request in flight is aborted, its response is not parsed and the listener is
+     * never called. Retries and a wait for a token refresh are dropped as well. Can be called from any thread.
+     *
+     * @return <code>true</code> if the request was cancelled by this call, <code>false</code> if it already was
+     */
+    public boolean cancel() {
+        return handle.cancel();
+    }
+
+    /**
+     * @return The handle shared by the request and its retries
+     */
+    public SPiDRequestHandle getHandle() {
+        return handle;
+    }
+
+    /**
+     * Cacheable GET requests use the response cache if it is enabled in the configuration
+     *
+     * @param cacheable <code>true</code> if the response can be cached
+     */
+    public void setCacheable(boolean cacheable) {
+        this.cacheable = cacheable;
+    }
+
     public Integer getRetryCount() {
         return retryCount;
     }
@@ -329,4 +971,91 @@ public class SPiDRequest extends AsyncTask<Void, Void, SPiDResponse> {
     public void increaseRetryCount() {
         retryCount++;
     }
+
+    /**
+     * Listener for the token refresh a retried request is waiting on
+     */
+    private static class RetryListener implements SPiDAuthorizationListener {
+        private final SPiDRequest request;
+
+        /**
+         * Creates a RetryListener
+         *
+         * @param request The request waiting for a new access token
+         */
+        public RetryListener(SPiDRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public void onComplete() {
+            // Usually already run from the waiting queue when the new access token was received
+            SPiDClient.getInstance().runWaitingRequest(request);
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            if (SPiDClient.getInstance().removeWaitingRequest(request)) {
+                // A rejected refresh token cannot succeed on replay, so the stored request is only kept for
+                // transport and server errors
+                if (exception instanceof IOException || isServerError(exception)) {
+                    request.failUnsent(exception);
+                } else {
+                    request.finishPersisted(true);
+                    request.notifyError(exception);
+                }
+                request.finish();
+            }
+        }
+    }
+
+    /**
+     * Listener of a request that joined an identical request in flight, it is not called if the joining request
+     * has been cancelled
+     */
+    private static class FollowerListener implements SPiDRequestListener {
+        private final SPiDRequestHandle handle;
+        private final SPiDRequestListener listener;
+
+        /**
+         * Creates a FollowerListener
+         *
+         * @param handle   The handle of the joining request
+         * @param listener The listener of the joining request
+         */
+        public FollowerListener(SPiDRequestHandle handle, SPiDRequestListener listener) {
+            this.handle = handle;
+            this.listener = listener;
+        }
+
+        /**
+         * @return <code>true</code> if the joining request has been cancelled
+         */
+        public boolean isCancelled() {
+            return handle.isCancelled();
+        }
+
+        /**
+         * @return The tags of the joining request
+         */
+        public Set<Object> getTags() {
+            return handle.getTags();
+        }
+
+        @Override
+        public void onComplete(SPiDResponse result) {
+            unregister(handle);
+            if (!handle.isCancelled()) {
+                listener.onComplete(result);
+            }
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            unregister(handle);
+            if (!handle.isCancelled()) {
+                listener.onError(exception);
+            }
+        }
+    }
 }
@@ -0,0 +1,258 @@
+package com.spid.android.sdk.request;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pool owned by the SDK that runs all <code>SPiDRequest</code>s, this keeps SDK requests out of the
+ * application's <code>AsyncTask</code> queue and lets independent requests run in parallel. Waiting requests are
+ * started in priority order and only a limited number of background requests run at the same time, so that
+ * prefetches cannot hold up a login. Background requests never take the last free slot unless there is only one.
+ */
+public class SPiDRequestExecutor extends ThreadPoolExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final int maxConcurrentRequests;
+    private final int maxBackgroundRequests;
+    private final Map<SPiDRequestPriority, ArrayDeque<Runnable>> pending = new EnumMap<>(SPiDRequestPriority.class);
+    private int running;
+    private int runningBackground;
+    private boolean shuttingDown;
+    private final List<Runnable> terminationActions = new ArrayList<>();
+    private boolean terminatedCalled;
+
+    /**
+     * Constructor for SPiDRequestExecutor, background requests may use all slots but one
+     *
+     * @param maxConcurrentRequests Maximum number of requests running at the same time
+     */
+    public SPiDRequestExecutor(int maxConcurrentRequests) {
+        this(maxConcurrentRequests, maxConcurrentRequests);
+    }
+
+    /**
+     * Constructor for SPiDRequestExecutor
+     *
+     * @param maxConcurrentRequests Maximum number of requests running at the same time
+     * @param maxBackgroundRequests Maximum number of background requests running at the same time, at most
+     *                              <code>maxConcurrentRequests - 1</code> if more than one request can run
+     */
+    public SPiDRequestExecutor(int maxConcurrentRequests, int maxBackgroundRequests) {
+        super(maxConcurrentRequests, maxConcurrentRequests, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new RequestThreadFactory());
+        allowCoreThreadTimeOut(true);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        // Keeps a slot free for critical and interactive requests
+        this.maxBackgroundRequests = Math.min(maxBackgroundRequests, Math.max(maxConcurrentRequests - 1, 1));
+        for (SPiDRequestPriority priority : SPiDRequestPriority.values()) {
+            pending.put(priority, new ArrayDeque<Runnable>());
+        }
+    }
+
+    /**
+     * Runs a task with {@link SPiDRequestPriority#INTERACTIVE} priority
+     *
+     * @param command The task
+     */
+    @Override
+    public void execute(Runnable command) {
+        execute(command, SPiDRequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * Runs a task once all waiting tasks with a higher priority have started
+     *
+     * @param command  The task
+     * @param priority The priority of the task
+     */
+    public void execute(Runnable command, SPiDRequestPriority priority) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        synchronized (this) {
+            if (shuttingDown) {
+                throw new RejectedExecutionException("SPiDRequestExecutor has been shut down");
+            }
+            pending.get(priority).add(command);
+        }
+        dispatch();
+    }
+
+    /**
+     * @param priority The priority
+     * @return Executor that runs tasks with the priority, for <code>AsyncTask.executeOnExecutor</code>
+     */
+    public Executor withPriority(final SPiDRequestPriority priority) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                SPiDRequestExecutor.this.execute(command, priority);
+            }
+        };
+    }
+
+    /**
+     * Stops accepting tasks, tasks that are already waiting still run
+     */
+    @Override
+    public void shutdown() {
+        boolean idle;
+        synchronized (this) {
+            shuttingDown = true;
+            idle = !hasPending();
+        }
+        if (idle) {
+            super.shutdown();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        synchronized (this) {
+            shuttingDown = true;
+            for (ArrayDeque<Runnable> tasks : pending.values()) {
+                tasks.clear();
+            }
+        }
+        return super.shutdownNow();
+    }
+
+    /**
+     * Runs an action once the executor has shut down and all its tasks have finished, e.g. to release resources
+     * the tasks still use. Runs the action at once if the executor has already terminated.
+     *
+     * @param action The action
+     */
+    public void runOnTermination(Runnable action) {
+        synchronized (terminationActions) {
+            if (!terminatedCalled) {
+                terminationActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    @Override
+    protected void terminated() {
+        super.terminated();
+        List<Runnable> actions;
+        synchronized (terminationActions) {
+            terminatedCalled = true;
+            actions = new ArrayList<>(terminationActions);
+            terminationActions.clear();
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    /**
+     * Starts waiting tasks while there are free slots
+     */
+    private void dispatch() {
+        while (true) {
+            final Runnable next;
+            final boolean background;
+            synchronized (this) {
+                SPiDRequestPriority priority = running < maxConcurrentRequests ? nextPriority() : null;
+                if (priority == null) {
+                    if (shuttingDown && !hasPending() && !isShutdown()) {
+                        super.shutdown();
+                    }
+                    return;
+                }
+                next = pending.get(priority).poll();
+                background = priority == SPiDRequestPriority.BACKGROUND;
+                running++;
+                if (background) {
+                    runningBackground++;
+                }
+            }
+            try {
+                super.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            next.run();
+                        } finally {
+                            finished(background);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    running--;
+                    if (background) {
+                        runningBackground--;
+                    }
+                    // The pool no longer accepts tasks, so the waiting tasks can never run
+                    for (ArrayDeque<Runnable> tasks : pending.values()) {
+                        tasks.clear();
+                    }
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return Priority of the next task to start, <code>null</code> if no waiting task can be started
+     */
+    private SPiDRequestPriority nextPriority() {
+        if (!pending.get(SPiDRequestPriority.CRITICAL).isEmpty()) {
+            return SPiDRequestPriority.CRITICAL;
+        }
+        if (!pending.get(SPiDRequestPriority.INTERACTIVE).isEmpty()) {
+            return SPiDRequestPriority.INTERACTIVE;
+        }
+        if (!pending.get(SPiDRequestPriority.BACKGROUND).isEmpty() && runningBackground < maxBackgroundRequests) {
+            return SPiDRequestPriority.BACKGROUND;
+        }
+        return null;
+    }
+
+    private synchronized boolean hasPending() {
+        for (ArrayDeque<Runnable> tasks : pending.values()) {
+            if (!tasks.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void finished(boolean background) {
+        synchronized (this) {
+            running--;
+            if (background) {
+                runningBackground--;
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Creates named daemon threads for requests, <code>AsyncTask</code> lowers the priority when the request runs
+     */
+    private static class RequestThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "SPiDRequest #" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.spid.android.sdk.request;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.spid.android.sdk.http.SPiDHttpRequest;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Cancellation state and tags of a <code>SPiDRequest</code>, shared with the copies made for retries so that
+ * cancelling a request also cancels the attempt that is currently running, scheduled or waiting for a token refresh
+ */
+public class SPiDRequestHandle {
+
+    private final Set<Object> tags = new CopyOnWriteArraySet<>();
+    private volatile boolean cancelled;
+    private SPiDRequest attempt;
+    private SPiDHttpRequest httpRequest;
+
+    /**
+     * @param tag Tag used to cancel a group of requests, e.g. the activity that started the request
+     */
+    public void addTag(Object tag) {
+        if (tag == null) {
+            throw new IllegalArgumentException("Tag must not be null");
+        }
+        tags.add(tag);
+    }
+
+    /**
+     * @param tag The tag
+     * @return <code>true</code> if the request has the tag
+     */
+    public boolean hasTag(Object tag) {
+        return tags.contains(tag);
+    }
+
+    /**
+     * @return The tags of the request
+     */
+    public Set<Object> getTags() {
+        return Collections.unmodifiableSet(tags);
+    }
+
+    /**
+     * @return <code>true</code> if the request has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancels the request, the http request in flight is aborted, a scheduled retry is dropped and the listener is
+     * never called. Can be called from any thread.
+     *
+     * @return <code>true</code> if the request was cancelled by this call, <code>false</code> if it already was
+     */
+    public boolean cancel() {
+        if (!markCancelled()) {
+            return false;
+        }
+        abandonAttempt();
+        return true;
+    }
+
+    /**
+     * Marks the request as cancelled and aborts the http request in flight, without abandoning the current attempt
+     *
+     * @return <code>true</code> if the request was cancelled by this call, <code>false</code> if it already was
+     */
+    boolean markCancelled() {
+        SPiDHttpRequest sending;
+        synchronized (this) {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            sending = httpRequest;
+        }
+        if (sending != null) {
+            sending.abort();
+        }
+        return true;
+    }
+
+    /**
+     * Abandons the current attempt of a cancelled request, a scheduled retry is dropped and the listener is never
+     * called
+     */
+    void abandonAttempt() {
+        final SPiDRequest current;
+        synchronized (this) {
+            current = attempt;
+        }
+        if (current != null) {
+            Runnable abandon = new Runnable() {
+                @Override
+                public void run() {
+                    current.abandon();
+                }
+            };
+            // Requests change attempts on the main thread only
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                abandon.run();
+            } else {
+                new Handler(Looper.getMainLooper()).post(abandon);
+            }
+        }
+    }
+
+    /**
+     * @param attempt The attempt that is now running or waiting
+     * @return <code>false</code> if the request has been cancelled
+     */
+    synchronized boolean attach(SPiDRequest attempt) {
+        this.attempt = attempt;
+        return !cancelled;
+    }
+
+    /**
+     * @param attempt The attempt that finished
+     * @return <code>true</code> if the attempt was the current attempt, i.e. no retry took over
+     */
+    synchronized boolean detach(SPiDRequest attempt) {
+        if (this.attempt != attempt) {
+            return false;
+        }
+        this.attempt = null;
+        return true;
+    }
+
+    /**
+     * @param request The http request about to be sent
+     * @return <code>false</code> if the request has been cancelled and must not be sent
+     */
+    synchronized boolean beginSend(SPiDHttpRequest request) {
+        if (cancelled) {
+            return false;
+        }
+        httpRequest = request;
+        return true;
+    }
+
+    /**
+     * @param request The http request that has been sent and read
+     */
+    synchronized void endSend(SPiDHttpRequest request) {
+        if (httpRequest == request) {
+            httpRequest = null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.spid.android.sdk.request;
+
+/**
+ * Dispatch priority of a <code>SPiDRequest</code>, higher priorities are always started first
+ */
+public enum SPiDRequestPriority {
+
+    /**
+     * Authorization requests the user is waiting on, e.g. token exchanges
+     */
+    CRITICAL,
+
+    /**
+     * Requests for the screen the user is looking at, the default
+     */
+    INTERACTIVE,
+
+    /**
+     * Prefetches and other requests nobody is waiting on, limited in how many run at the same time
+     */
+    BACKGROUND
+}
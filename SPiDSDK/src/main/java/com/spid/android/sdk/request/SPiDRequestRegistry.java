@@ -0,0 +1,62 @@
+package com.spid.android.sdk.request;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the requests that have been executed and not yet finished, so that all requests with a tag can be
+ * cancelled in one call
+ */
+public class SPiDRequestRegistry {
+
+    private final Set<SPiDRequestHandle> handles =
+            Collections.newSetFromMap(new ConcurrentHashMap<SPiDRequestHandle, Boolean>());
+
+    /**
+     * @param handle Handle of a request that has been executed
+     */
+    public void register(SPiDRequestHandle handle) {
+        handles.add(handle);
+    }
+
+    /**
+     * @param handle Handle of a request that has finished or been cancelled
+     */
+    public void unregister(SPiDRequestHandle handle) {
+        handles.remove(handle);
+    }
+
+    /**
+     * Cancels all unfinished requests with the tag
+     *
+     * @param tag The tag
+     * @return The number of cancelled requests
+     */
+    public int cancel(Object tag) {
+        List<SPiDRequestHandle> cancelled = new ArrayList<>();
+        for (SPiDRequestHandle handle : handles) {
+            if (handle.hasTag(tag)) {
+                handles.remove(handle);
+                if (handle.markCancelled()) {
+                    cancelled.add(handle);
+                }
+            }
+        }
+        // Abandoned only once all are cancelled, so that a cancelled request is not handed off to another request
+        // with the tag that joined it
+        for (SPiDRequestHandle handle : cancelled) {
+            handle.abandonAttempt();
+        }
+        return cancelled.size();
+    }
+
+    /**
+     * @return The number of unfinished requests
+     */
+    public int size() {
+        return handles.size();
+    }
+}
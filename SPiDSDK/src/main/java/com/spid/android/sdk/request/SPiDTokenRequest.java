@@ -2,7 +2,6 @@ package com.spid.android.sdk.request;
 
 import com.spid.android.sdk.SPiDClient;
 import com.spid.android.sdk.accesstoken.SPiDAccessToken;
-import com.spid.android.sdk.keychain.SPiDKeychain;
 import com.spid.android.sdk.listener.SPiDAuthorizationListener;
 import com.spid.android.sdk.response.SPiDResponse;
 
@@ -21,6 +20,7 @@ public class SPiDTokenRequest extends SPiDRequest {
     public SPiDTokenRequest(SPiDAuthorizationListener authorizationListener) {
         super(POST, SPiDClient.getInstance().getConfig().getTokenURL(), null);
         this.authorizationListener = authorizationListener;
+        setPriority(SPiDRequestPriority.CRITICAL);
     }
 
     /**
@@ -30,7 +30,7 @@ public class SPiDTokenRequest extends SPiDRequest {
      */
     @Override
     protected void doOnPostExecute(SPiDResponse response) {
-        SPiDClient.getInstance().clearAuthorizationRequest();
+        clearAuthorizationRequest();
         Exception exception = response.getException();
         if (exception != null) {
             if(authorizationListener != null) {
@@ -41,8 +41,7 @@ public class SPiDTokenRequest extends SPiDRequest {
         } else {
             try {
                 SPiDAccessToken token = new SPiDAccessToken(response.getJsonObject());
-                SPiDClient.getInstance().setAccessToken(token);
-                SPiDKeychain.encryptAccessTokenToSharedPreferences(SPiDClient.getInstance().getConfig().getClientSecret(), token);
+                SPiDClient.getInstance().persistAccessToken(token);
                 SPiDClient.getInstance().runWaitingRequests();
                 if (authorizationListener != null)
                     authorizationListener.onComplete();
@@ -54,4 +53,19 @@ public class SPiDTokenRequest extends SPiDRequest {
             }
         }
     }
+
+    /**
+     * A cancelled token request no longer holds the current authorization request
+     */
+    @Override
+    protected void doOnCancelled() {
+        clearAuthorizationRequest();
+    }
+
+    /**
+     * Clears the current authorization request when the token request has finished
+     */
+    protected void clearAuthorizationRequest() {
+        SPiDClient.getInstance().clearAuthorizationRequest();
+    }
 }
@@ -0,0 +1,179 @@
+package com.spid.android.sdk.response;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Parses response bodies into <code>JSONObject</code>s. On API level 11 and above the body is pulled straight from
+ * the bytes with a <code>JsonReader</code>, so the body is never held as a <code>String</code> at the same time.
+ */
+public final class SPiDJsonParser {
+
+    private SPiDJsonParser() {
+    }
+
+    /**
+     * Parses a JSON object
+     *
+     * @param bytes   The response body
+     * @param charset Charset of the body
+     * @return The parsed object
+     * @throws JSONException If the body is not a JSON object
+     */
+    public static JSONObject parseObject(byte[] bytes, String charset) throws JSONException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            return streamObject(bytes, charset);
+        }
+        try {
+            return new JSONObject(new String(bytes, charset));
+        } catch (UnsupportedEncodingException e) {
+            throw new JSONException("Unsupported charset " + charset);
+        }
+    }
+
+    /**
+     * Checks if a JSON object has a top-level <code>error</code> that is not <code>null</code>. On API level 11 and
+     * above the body is only scanned, no objects are created for the other values.
+     *
+     * @param bytes   The response body
+     * @param charset Charset of the body
+     * @return <code>true</code> if the object contains an error
+     * @throws JSONException If the body is not a JSON object
+     */
+    public static boolean hasError(byte[] bytes, String charset) throws JSONException {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) {
+            JSONObject object = parseObject(bytes, charset);
+            return object.has("error") && !"null".equals(object.getString("error"));
+        }
+        JsonReader reader = null;
+        try {
+            reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(bytes), charset));
+            reader.setLenient(true);
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JSONException("Response is not a JSON object");
+            }
+            boolean hasError = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("error".equals(name) && reader.peek() == JsonToken.STRING) {
+                    hasError = !"null".equals(reader.nextString());
+                } else if ("error".equals(name) && reader.peek() != JsonToken.NULL) {
+                    hasError = true;
+                    reader.skipValue();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return hasError;
+        } catch (IOException | IllegalStateException e) {
+            throw new JSONException("Invalid JSON: " + e.getMessage());
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static JSONObject streamObject(byte[] bytes, String charset) throws JSONException {
+        JsonReader reader = null;
+        try {
+            reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(bytes), charset));
+            reader.setLenient(true);
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JSONException("Response is not a JSON object");
+            }
+            return readObject(reader);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new JSONException("Invalid JSON: " + e.getMessage());
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static void closeQuietly(JsonReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static JSONObject readObject(JsonReader reader) throws IOException, JSONException {
+        JSONObject object = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            object.put(name, readValue(reader));
+        }
+        reader.endObject();
+        return object;
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static JSONArray readArray(JsonReader reader) throws IOException, JSONException {
+        JSONArray array = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            array.put(readValue(reader));
+        }
+        reader.endArray();
+        return array;
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static Object readValue(JsonReader reader) throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(reader);
+            case BEGIN_ARRAY:
+                return readArray(reader);
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NUMBER:
+                return toNumber(reader.nextString());
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    /**
+     * Converts a number literal the same way as <code>JSONTokener</code>, so that values can be read with
+     * the same getters as before
+     *
+     * @param literal The number literal
+     * @return An <code>Integer</code>, <code>Long</code> or <code>Double</code>
+     */
+    private static Number toNumber(String literal) {
+        if (literal.indexOf('.') == -1 && literal.indexOf('e') == -1 && literal.indexOf('E') == -1) {
+            try {
+                long longValue = Long.parseLong(literal);
+                if (longValue <= Integer.MAX_VALUE && longValue >= Integer.MIN_VALUE) {
+                    return (int) longValue;
+                }
+                return longValue;
+            } catch (NumberFormatException e) {
+                // fall through to double
+            }
+        }
+        return Double.valueOf(literal);
+    }
+}
@@ -1,19 +1,18 @@
 package com.spid.android.sdk.response;
 
-import android.text.TextUtils;
-
 import com.spid.android.sdk.exceptions.SPiDException;
 import com.spid.android.sdk.exceptions.SPiDInvalidResponseException;
+import com.spid.android.sdk.http.SPiDApacheHttpTransport;
+import com.spid.android.sdk.http.SPiDHttpResponse;
 
-import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,9 +21,13 @@ import java.util.Map;
  */
 public class SPiDResponse {
 
-    private final Integer code;
-    private final Map<String, String> headers;
+    private Integer code;
+    private Map<String, String> headers;
+
+    private static final byte[] EMPTY = new byte[0];
 
+    private byte[] content;
+    private String charset;
     private String body;
     private JSONObject jsonObject;
     private Exception exception;
@@ -36,7 +39,10 @@ public class SPiDResponse {
      */
     public SPiDResponse(Exception exception) {
         this.code = SPiDException.UNKNOWN_CODE;
+        this.content = EMPTY;
+        this.charset = SPiDHttpResponse.DEFAULT_CHARSET;
         this.body = "";
+        this.jsonObject = new JSONObject();
         this.headers = new HashMap<>();
         this.exception = exception;
     }
@@ -45,41 +51,73 @@ public class SPiDResponse {
      * Constructor for SPiDResponse
      *
      * @param httpResponse The response from SPiD
+     * @deprecated Use {@link #SPiDResponse(SPiDHttpResponse)}
      */
+    @Deprecated
     public SPiDResponse(HttpResponse httpResponse) {
-        code = httpResponse.getStatusLine().getStatusCode();
-        headers = new HashMap<>();
-        exception = null;
-        BufferedReader reader = null;
+        try {
+            init(SPiDApacheHttpTransport.toHttpResponse(httpResponse));
+        } catch (IOException ioe) {
+            code = httpResponse.getStatusLine().getStatusCode();
+            headers = new HashMap<>();
+            content = EMPTY;
+            body = "";
+            jsonObject = new JSONObject();
+            exception = ioe;
+        }
+    }
+
+    /**
+     * Constructor for SPiDResponse
+     *
+     * @param httpResponse The response from SPiD
+     */
+    public SPiDResponse(SPiDHttpResponse httpResponse) {
+        this(httpResponse, false);
+    }
 
-        for (Header header : httpResponse.getAllHeaders()) {
-            headers.put(header.getName(), header.getValue());
+    /**
+     * Constructor for SPiDResponse
+     *
+     * @param httpResponse The response from SPiD
+     * @param lean         If <code>true</code> the body and headers of a successful response are dropped after
+     *                     error detection, for requests where the listener does not use the result
+     */
+    public SPiDResponse(SPiDHttpResponse httpResponse, boolean lean) {
+        init(httpResponse);
+        if (lean && exception == null) {
+            content = EMPTY;
+            body = "";
+            headers = Collections.emptyMap();
+            jsonObject = new JSONObject();
         }
+    }
+
+    private void init(SPiDHttpResponse httpResponse) {
+        code = httpResponse.getCode();
+        headers = httpResponse.getHeaders() != null ? httpResponse.getHeaders() : new HashMap<String, String>();
+        charset = httpResponse.getCharset();
+        exception = null;
 
         try {
-            reader = new BufferedReader(new InputStreamReader(httpResponse.getEntity().getContent()));
-            StringBuilder builder = new StringBuilder();
-            String line = reader.readLine();
-            while (line != null) {
-                builder.append(line);
-                line = reader.readLine();
-            }
-            body = builder.toString();
+            content = httpResponse.readContent();
         } catch (IOException ioe) {
+            content = EMPTY;
             exception = ioe;
-        } finally {
-            closeQuietly(reader);
         }
 
-        if (!TextUtils.isEmpty(body)) {
+        if (content.length > 0) {
             try {
-                this.jsonObject = new JSONObject(this.body);
-                if (jsonObject.has("error") && !("null".equals(jsonObject.getString("error")))) {
+                // Successful responses are only scanned for errors, the JSON is parsed on first access
+                if (!isSuccessful()) {
+                    jsonObject = SPiDJsonParser.parseObject(content, charset);
+                } else if (SPiDJsonParser.hasError(content, charset)) {
+                    jsonObject = SPiDJsonParser.parseObject(content, charset);
                     exception = SPiDException.create(jsonObject);
                 }
             } catch (JSONException e) {
                 jsonObject = new JSONObject();
-                exception = new SPiDInvalidResponseException("Invalid response from SPiD: " + body);
+                exception = new SPiDInvalidResponseException("Invalid response from SPiD: " + getBody());
             }
         } else {
             jsonObject = new JSONObject();
@@ -90,16 +128,6 @@ public class SPiDResponse {
         }
     }
 
-    private void closeQuietly(BufferedReader reader) {
-        if(reader != null) {
-            try {
-                reader.close();
-            } catch (IOException e) {
-                // ignore
-            }
-        }
-    }
-
     /**
      * @return If request was successful, i.e. http code between 200 and 400
      */
@@ -115,16 +143,37 @@ public class SPiDResponse {
     }
 
     /**
-     * @return The http body
+     * @return The http body, decoded on first access. Once the body of a successful response has been parsed by
+     * {@link #getJsonObject()} only the parsed object is kept, the body is then serialized from it.
      */
-    public String getBody() {
+    public synchronized String getBody() {
+        if (body == null) {
+            if (content == null) {
+                body = jsonObject.toString();
+            } else {
+                try {
+                    body = new String(content, charset);
+                } catch (UnsupportedEncodingException e) {
+                    body = new String(content);
+                }
+            }
+        }
         return body;
     }
 
     /**
-     * @return The http body as a <code>JSONObject</code>
+     * @return The http body as a <code>JSONObject</code>, parsed on first access
      */
-    public JSONObject getJsonObject() {
+    public synchronized JSONObject getJsonObject() {
+        if (jsonObject == null) {
+            try {
+                jsonObject = SPiDJsonParser.parseObject(content, charset);
+                // Large payloads are not held twice, the raw bytes are released once they are parsed
+                content = null;
+            } catch (JSONException e) {
+                jsonObject = new JSONObject();
+            }
+        }
         return jsonObject;
     }
 
@@ -0,0 +1,74 @@
+package com.spid.android.sdk.retry;
+
+import java.util.Random;
+
+/**
+ * Exponential backoff with full jitter for requests that failed without an answer from SPiD or with a 429 or 5xx
+ * response. The delay before retry <code>n</code> is random between <code>0</code> and
+ * <code>min(maxDelay, baseDelay * 2^(n - 1))</code>, so that clients recovering from the same outage spread out
+ * instead of retrying in step.
+ */
+public class SPiDRetryPolicy {
+
+    /**
+     * Policy that never retries
+     */
+    public static final SPiDRetryPolicy NONE = new SPiDRetryPolicy(1, 0, 0, 0);
+
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final long maxElapsed;
+
+    /**
+     * Constructor for SPiDRetryPolicy
+     *
+     * @param maxAttempts Maximum number of attempts including the first, <code>1</code> disables retries
+     * @param baseDelay   Upper bound in milliseconds for the delay before the first retry
+     * @param maxDelay    Upper bound in milliseconds for the delay before any retry
+     * @param maxElapsed  Maximum time in milliseconds from the first attempt until the last retry is started
+     */
+    public SPiDRetryPolicy(int maxAttempts, long baseDelay, long maxDelay, long maxElapsed) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("MaxAttempts must be at least 1");
+        }
+        if (baseDelay < 0 || maxDelay < baseDelay || maxElapsed < 0) {
+            throw new IllegalArgumentException("Delays must not be negative and maxDelay must be at least baseDelay");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.maxElapsed = maxElapsed;
+    }
+
+    /**
+     * @param retry  The retry, <code>1</code> for the first retry
+     * @param random Source of the jitter
+     * @return Delay in milliseconds before the retry
+     */
+    public long getDelay(int retry, Random random) {
+        long cap = baseDelay;
+        for (int i = 1; i < retry && cap < maxDelay; i++) {
+            cap *= 2;
+        }
+        cap = Math.min(cap, maxDelay);
+        return (long) (random.nextDouble() * cap);
+    }
+
+    /**
+     * @param attempts Number of attempts made so far
+     * @param elapsed  Time in milliseconds since the first attempt
+     * @param delay    Delay in milliseconds before the next attempt
+     * @return <code>true</code> if the budget allows another attempt
+     */
+    public boolean canRetry(int attempts, long elapsed, long delay) {
+        return attempts < maxAttempts && elapsed + delay <= maxElapsed;
+    }
+
+    /**
+     * @return Maximum number of attempts including the first
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
@@ -0,0 +1,49 @@
+package com.spid.android.sdk.retry;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits out retry delays on a background thread, the retries themselves are started on the main thread
+ */
+public class SPiDRetryScheduler {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Constructor for SPiDRetryScheduler
+     */
+    public SPiDRetryScheduler() {
+        executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SPiDRetryScheduler");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs a retry on the main thread after a delay
+     *
+     * @param retry The retry
+     * @param delay Delay in milliseconds
+     */
+    public void schedule(final Runnable retry, long delay) {
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                new Handler(Looper.getMainLooper()).post(retry);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+}
@@ -14,6 +14,8 @@ import java.net.URLEncoder;
  */
 public final class SPiDUrl {
 
+    private static final String ID = "{id}";
+    private static final int MIN_HEX_ID_LENGTH = 16;
     private static final String AUTHORIZE_URL = "%s?client_id=%s&redirect_uri=%s&grant_type=%s&response_type=%s&platform=%s&force=%s";
 
     private enum Authorization {
@@ -97,4 +99,40 @@ public final class SPiDUrl {
         }
         return encodedRedirectURL;
     }
+
+    /**
+     * Creates the path template for a url by dropping the query and replacing numeric and hex id segments
+     *
+     * @param url The request url
+     * @return The endpoint, e.g. <code>https://login.schibsted.com/api/{id}/user/{id}/agreements</code>
+     */
+    public static String getEndpoint(String url) {
+        int queryStart = url.indexOf('?');
+        String path = queryStart >= 0 ? url.substring(0, queryStart) : url;
+        int pathStart = path.indexOf("://");
+        pathStart = path.indexOf('/', pathStart >= 0 ? pathStart + 3 : 0);
+        if (pathStart < 0) {
+            return path;
+        }
+        StringBuilder builder = new StringBuilder(path.length()).append(path, 0, pathStart);
+        for (String segment : path.substring(pathStart + 1).split("/", -1)) {
+            builder.append('/').append(isId(segment) ? ID : segment);
+        }
+        return builder.toString();
+    }
+
+    private static boolean isId(String segment) {
+        if (segment.isEmpty()) {
+            return false;
+        }
+        boolean digitsOnly = true;
+        boolean hex = true;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            digitsOnly &= digit;
+            hex &= digit || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-';
+        }
+        return digitsOnly || (hex && segment.length() >= MIN_HEX_ID_LENGTH);
+    }
 }
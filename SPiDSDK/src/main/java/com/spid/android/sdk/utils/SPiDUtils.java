@@ -2,12 +2,10 @@ package com.spid.android.sdk.utils;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.util.Base64;
 
 import com.spid.android.sdk.SPiDClient;
 import com.spid.android.sdk.logger.SPiDLogger;
 
-import java.io.UnsupportedEncodingException;
 import java.util.UUID;
 
 import javax.crypto.Mac;
@@ -20,7 +18,10 @@ public final class SPiDUtils {
 
     public static final String HMAC_SHA_2561 = "HmacSHA256";
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private static String sID = null;
+    private static volatile HmacKey cachedHmacKey;
 
     public static final String DEVICE_ID = "DEVICE_ID";
 
@@ -43,15 +44,44 @@ public final class SPiDUtils {
      * @return Base64 encoded input
      */
     public static String encodeBase64(String input) {
-        byte[] data;
-        try {
-            data = input.getBytes("UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            // UTF-8 is always present in Android, should never occur
-            SPiDLogger.log("Failed to getBytes for UTF-8", e);
-            return "";
+        return appendBase64(new StringBuilder((input.length() + 2) / 3 * 4 + 2), input).toString();
+    }
+
+    /**
+     * Encodes the UTF-8 bytes of a string with Base64 and appends them to a builder, without copying the input to a
+     * byte array. The output matches <code>Base64.encodeToString(input.getBytes("UTF-8"), Base64.DEFAULT)</code>,
+     * i.e. padded with a line feed after every 76 characters and at the end.
+     *
+     * @param output Builder the encoded input is appended to
+     * @param input  String to be encoded
+     * @return The builder
+     */
+    public static StringBuilder appendBase64(StringBuilder output, String input) {
+        Base64Writer writer = new Base64Writer(output);
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c < 0x80) {
+                writer.write(c);
+            } else if (c < 0x800) {
+                writer.write(0xc0 | (c >> 6));
+                writer.write(0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < input.length() && Character.isLowSurrogate(input.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, input.charAt(++i));
+                writer.write(0xf0 | (codePoint >> 18));
+                writer.write(0x80 | ((codePoint >> 12) & 0x3f));
+                writer.write(0x80 | ((codePoint >> 6) & 0x3f));
+                writer.write(0x80 | (codePoint & 0x3f));
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                // Unpaired surrogate, replaced like String.getBytes does
+                writer.write('?');
+            } else {
+                writer.write(0xe0 | (c >> 12));
+                writer.write(0x80 | ((c >> 6) & 0x3f));
+                writer.write(0x80 | (c & 0x3f));
+            }
         }
-        return Base64.encodeToString(data, Base64.DEFAULT);
+        writer.finish();
+        return output;
     }
 
     /**
@@ -61,11 +91,12 @@ public final class SPiDUtils {
      * @return Array as a hex string
      */
     public static String byteArrayToHexString(byte[] byteArray) {
-        final StringBuilder builder = new StringBuilder();
-        for(byte b : byteArray) {
-            builder.append(String.format("%02x", b));
+        final char[] chars = new char[byteArray.length * 2];
+        for (int i = 0; i < byteArray.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(byteArray[i] >> 4) & 0x0f];
+            chars[i * 2 + 1] = HEX_DIGITS[byteArray[i] & 0x0f];
         }
-        return builder.toString();
+        return new String(chars);
     }
 
     /**
@@ -77,9 +108,16 @@ public final class SPiDUtils {
      * @return Hashed string
      */
     public static String getHmacSHA256(String key, String input) throws Exception {
-        Mac mac = Mac.getInstance(HMAC_SHA_2561);
-        mac.init(new SecretKeySpec(key.getBytes(), HMAC_SHA_2561));
-        byte[] bs = mac.doFinal(input.getBytes());
+        HmacKey hmacKey = cachedHmacKey;
+        if (hmacKey == null || !hmacKey.key.equals(key)) {
+            hmacKey = new HmacKey(key);
+            cachedHmacKey = hmacKey;
+        }
+        byte[] bs;
+        // Mac is not thread-safe, doFinal resets it so it can be reused for the same key
+        synchronized (hmacKey.mac) {
+            bs = hmacKey.mac.doFinal(input.getBytes());
+        }
         return byteArrayToHexString(bs);
     }
 
@@ -116,4 +154,60 @@ public final class SPiDUtils {
         Context context = SPiDClient.getInstance().getConfig().getContext();
         return context.getSharedPreferences(context.getPackageName() + ".sdk", Context.MODE_PRIVATE);
     }
+
+    /**
+     * Initialized Mac for a key, initializing a Mac is expensive compared to signing a short payload
+     */
+    /**
+     * Base64 encodes bytes as they are written, in the format of <code>Base64.DEFAULT</code>
+     */
+    private static final class Base64Writer {
+        private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+        private static final int LINE_GROUPS = 19;
+
+        private final StringBuilder output;
+        private int group;
+        private int groupSize;
+        private int lineGroups;
+
+        private Base64Writer(StringBuilder output) {
+            this.output = output;
+        }
+
+        private void write(int b) {
+            group = (group << 8) | (b & 0xff);
+            if (++groupSize == 3) {
+                output.append(ALPHABET[(group >> 18) & 0x3f]).append(ALPHABET[(group >> 12) & 0x3f])
+                        .append(ALPHABET[(group >> 6) & 0x3f]).append(ALPHABET[group & 0x3f]);
+                group = 0;
+                groupSize = 0;
+                if (++lineGroups == LINE_GROUPS) {
+                    output.append('\n');
+                    lineGroups = 0;
+                }
+            }
+        }
+
+        private void finish() {
+            if (groupSize == 1) {
+                output.append(ALPHABET[(group >> 2) & 0x3f]).append(ALPHABET[(group << 4) & 0x3f]).append("==\n");
+            } else if (groupSize == 2) {
+                output.append(ALPHABET[(group >> 10) & 0x3f]).append(ALPHABET[(group >> 4) & 0x3f])
+                        .append(ALPHABET[(group << 2) & 0x3f]).append("=\n");
+            } else if (lineGroups > 0) {
+                output.append('\n');
+            }
+        }
+    }
+
+    private static final class HmacKey {
+        private final String key;
+        private final Mac mac;
+
+        private HmacKey(String key) throws Exception {
+            this.key = key;
+            this.mac = Mac.getInstance(HMAC_SHA_2561);
+            this.mac.init(new SecretKeySpec(key.getBytes(), HMAC_SHA_2561));
+        }
+    }
 }
@@ -31,10 +31,7 @@ public final class SPiDWebView {
      *
      */
     public static WebView webViewAuthorization(Context context, WebView webView, SPiDWebViewClient webViewClient, SPiDAuthorizationListener listener) {
-        SPiDAuthorizationListener authorizationListener = SPiDClient.getInstance().getAuthorizationListener();
-        if (authorizationListener == null) {
-            SPiDClient.getInstance().setAuthorizationListener(listener);
-        } else {
+        if (!SPiDClient.getInstance().beginAuthorizationRequest(listener)) {
             throw new SPiDAuthorizationAlreadyRunningException("Authorization already running");
         }
 
@@ -76,10 +73,7 @@ public final class SPiDWebView {
      * @return The WebView
      */
     public static WebView webViewSignup(Context context, WebView webView, SPiDWebViewClient webViewClient, SPiDAuthorizationListener listener) {
-        SPiDAuthorizationListener authorizationListener = SPiDClient.getInstance().getAuthorizationListener();
-        if (authorizationListener == null) {
-            SPiDClient.getInstance().setAuthorizationListener(listener);
-        } else {
+        if (!SPiDClient.getInstance().beginAuthorizationRequest(listener)) {
             throw new SPiDAuthorizationAlreadyRunningException("Authorization already running");
         }
 
@@ -122,10 +116,7 @@ public final class SPiDWebView {
      * @return The WebView
      */
     public static WebView webViewForgotPassword(Context context, WebView webView, SPiDWebViewClient webViewClient, SPiDAuthorizationListener listener) {
-        SPiDAuthorizationListener authorizationListener = SPiDClient.getInstance().getAuthorizationListener();
-        if (authorizationListener == null) {
-            SPiDClient.getInstance().setAuthorizationListener(listener);
-        } else {
+        if (!SPiDClient.getInstance().beginAuthorizationRequest(listener)) {
             throw new SPiDAuthorizationAlreadyRunningException("Authorization already running");
         }
         return getForgotPasswordWebView(context, webView, webViewClient);
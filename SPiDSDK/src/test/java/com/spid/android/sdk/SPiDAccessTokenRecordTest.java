@@ -0,0 +1,66 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+import com.spid.android.sdk.keychain.SPiDAccessTokenRecord;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SPiDAccessTokenRecordTest {
+
+    @Test
+    public void decode_encodedToken_returnsEqualToken() throws Exception {
+        SPiDAccessToken accessToken = new SPiDAccessToken("access", 1400000000000L, "refresh", "123");
+
+        assertEquals(accessToken, SPiDAccessTokenRecord.decode(SPiDAccessTokenRecord.encode(accessToken)));
+    }
+
+    @Test
+    public void decode_encodedClientToken_keepsMissingValues() throws Exception {
+        SPiDAccessToken accessToken = new SPiDAccessToken("access", 1400000000000L, null, null);
+
+        assertEquals(accessToken, SPiDAccessTokenRecord.decode(SPiDAccessTokenRecord.encode(accessToken)));
+    }
+
+    @Test
+    public void decode_encodedTokenWithIssueTime_keepsIssueTime() throws Exception {
+        SPiDAccessToken accessToken = new SPiDAccessToken("access", 1399996400000L, 1400000000000L, "refresh", "123");
+
+        assertEquals(1399996400000L, SPiDAccessTokenRecord.decode(SPiDAccessTokenRecord.encode(accessToken)).getIssuedAt().getTime());
+    }
+
+    @Test
+    public void decode_versionOneRecord_hasNoIssueTime() throws Exception {
+        byte[] record = SPiDAccessTokenRecord.encode(new SPiDAccessToken("access", 1400000000000L, "refresh", "123"));
+        // Version 1 records end after the user id
+        byte[] versionOne = new byte[record.length - 1];
+        System.arraycopy(record, 0, versionOne, 0, versionOne.length);
+        versionOne[0] = 1;
+
+        SPiDAccessToken accessToken = SPiDAccessTokenRecord.decode(versionOne);
+
+        assertEquals("refresh", accessToken.getRefreshToken());
+        assertNull(accessToken.getIssuedAt());
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_unknownVersion_throwsIOException() throws Exception {
+        byte[] record = SPiDAccessTokenRecord.encode(new SPiDAccessToken("access", 1400000000000L, "refresh", "123"));
+        record[0] = (byte) (SPiDAccessTokenRecord.VERSION + 1);
+
+        SPiDAccessTokenRecord.decode(record);
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_truncatedRecord_throwsIOException() throws Exception {
+        byte[] record = SPiDAccessTokenRecord.encode(new SPiDAccessToken("access", 1400000000000L, "refresh", "123"));
+        byte[] truncated = new byte[record.length - 4];
+        System.arraycopy(record, 0, truncated, 0, truncated.length);
+
+        SPiDAccessTokenRecord.decode(truncated);
+    }
+}
@@ -116,4 +116,26 @@ public class SPiDAccessTokenTest {
 
         assertFalse(accessToken.isClientToken());
     }
+
+    @Test
+    public void isExpiring_expiresAfterMargin_returnsFalse() throws Exception {
+        SPiDAccessToken accessToken = new SPiDAccessToken(testAccessToken, System.currentTimeMillis() + 120000, testRefreshTokenString, testUserIdString);
+
+        assertFalse(accessToken.isExpiring(30000));
+    }
+
+    @Test
+    public void isExpiring_expiresWithinMargin_returnsTrue() throws Exception {
+        SPiDAccessToken accessToken = new SPiDAccessToken(testAccessToken, System.currentTimeMillis() + 10000, testRefreshTokenString, testUserIdString);
+
+        assertTrue(accessToken.isAuthorized());
+        assertTrue(accessToken.isExpiring(30000));
+    }
+
+    @Test
+    public void isExpiring_expired_returnsTrue() throws Exception {
+        SPiDAccessToken accessToken = new SPiDAccessToken(testAccessToken, System.currentTimeMillis() - 1000, testRefreshTokenString, testUserIdString);
+
+        assertTrue(accessToken.isExpiring(0));
+    }
 }
@@ -0,0 +1,126 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreaker;
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreakerPolicy;
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreakers;
+import com.spid.android.sdk.listener.SPiDCircuitBreakerListener;
+import com.spid.android.sdk.utils.SPiDUrl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SPiDCircuitBreakerTest {
+
+    private static final long OPEN_DURATION = 10000;
+
+    private final List<SPiDCircuitBreaker.State> states = new ArrayList<>();
+    private SPiDCircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        breaker = new SPiDCircuitBreaker("endpoint", new SPiDCircuitBreakerPolicy(4, 4, 0.5f, OPEN_DURATION, 1),
+                new SPiDCircuitBreakerListener() {
+                    @Override
+                    public void onStateChanged(String endpoint, SPiDCircuitBreaker.State state) {
+                        states.add(state);
+                    }
+                });
+    }
+
+    @Test
+    public void onFailure_belowMinimumCalls_staysClosed() {
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+
+        assertEquals(SPiDCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest(0));
+    }
+
+    @Test
+    public void onFailure_failureRateReached_opensAndFailsFast() {
+        breaker.onSuccess(0);
+        breaker.onFailure(0);
+        breaker.onSuccess(0);
+        breaker.onFailure(0);
+
+        assertEquals(SPiDCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(OPEN_DURATION - 1));
+        assertEquals(Arrays.asList(SPiDCircuitBreaker.State.OPEN), states);
+    }
+
+    @Test
+    public void onFailure_oldFailuresLeftWindow_staysClosed() {
+        breaker.onFailure(0);
+        for (int i = 0; i < 6; i++) {
+            breaker.onSuccess(0);
+        }
+        breaker.onFailure(0);
+
+        assertEquals(SPiDCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void allowRequest_afterOpenDuration_letsOneProbeThrough() {
+        open();
+
+        assertTrue(breaker.allowRequest(OPEN_DURATION));
+        assertFalse(breaker.allowRequest(OPEN_DURATION));
+        assertEquals(SPiDCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void onSuccess_probe_closes() {
+        open();
+        breaker.allowRequest(OPEN_DURATION);
+        breaker.onSuccess(OPEN_DURATION);
+
+        assertEquals(SPiDCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest(OPEN_DURATION));
+        assertEquals(Arrays.asList(SPiDCircuitBreaker.State.OPEN, SPiDCircuitBreaker.State.HALF_OPEN,
+                SPiDCircuitBreaker.State.CLOSED), states);
+    }
+
+    @Test
+    public void onFailure_probe_opensAgain() {
+        open();
+        breaker.allowRequest(OPEN_DURATION);
+        breaker.onFailure(OPEN_DURATION);
+
+        assertEquals(SPiDCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(2 * OPEN_DURATION - 1));
+        assertTrue(breaker.allowRequest(2 * OPEN_DURATION));
+    }
+
+    @Test
+    public void getEndpoint_idSegments_areReplaced() {
+        assertEquals("https://login.schibsted.com/api/{id}/user/{id}/agreements",
+                SPiDUrl.getEndpoint("https://login.schibsted.com/api/2/user/123/agreements?oauth_token=abc"));
+        assertEquals("https://login.schibsted.com/oauth/token",
+                SPiDUrl.getEndpoint("https://login.schibsted.com/oauth/token"));
+        assertEquals("https://example.com/api/{id}/client/{id}",
+                SPiDUrl.getEndpoint("https://example.com/api/2/client/4f1e2b3c4d5e6f7a8b9c0d1e"));
+    }
+
+    @Test
+    public void get_sameTemplate_returnsSameBreaker() {
+        SPiDCircuitBreakers breakers = new SPiDCircuitBreakers(new SPiDCircuitBreakerPolicy(4, 4, 0.5f, OPEN_DURATION, 1), null);
+
+        assertSame(breakers.get("https://example.com/api/2/user/1"), breakers.get("https://example.com/api/2/user/2"));
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(0);
+        }
+    }
+}
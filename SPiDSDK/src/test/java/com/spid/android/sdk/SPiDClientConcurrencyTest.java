@@ -0,0 +1,229 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+import com.spid.android.sdk.listener.SPiDAuthorizationListener;
+import com.spid.android.sdk.request.SPiDRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SPiDClientConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 200;
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() throws Exception {
+        executorService = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void after() throws Exception {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void runWaitingRequests_concurrentlyWithAddWaitingRequest_executesEveryRequestOnce() throws Exception {
+        final TestSPiDClient client = new TestSPiDClient();
+        client.setAccessToken(new SPiDAccessToken("access", System.currentTimeMillis() + 3600000, "refresh", "user"));
+        final List<SPiDRequest> requests = new ArrayList<>();
+        for (int i = 0; i < THREADS * ITERATIONS; i++) {
+            requests.add(mock(SPiDRequest.class));
+        }
+
+        runConcurrently(new Task() {
+            @Override
+            public void run(int thread) {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    client.addWaitingRequest(requests.get(thread * ITERATIONS + i));
+                    client.runWaitingRequests();
+                }
+            }
+        });
+        client.runWaitingRequests();
+
+        assertEquals(0, client.getWaitingRequestsQueueSize());
+        for (SPiDRequest request : requests) {
+            verify(request, times(1)).execute();
+        }
+    }
+
+    @Test
+    public void setAccessToken_sameTokenConcurrently_broadcastsOnce() throws Exception {
+        final TestSPiDClient client = new TestSPiDClient();
+        final SPiDAccessToken accessToken = new SPiDAccessToken("access", System.currentTimeMillis() + 3600000, "refresh", "user");
+
+        runConcurrently(new Task() {
+            @Override
+            public void run(int thread) {
+                client.setAccessToken(accessToken);
+            }
+        });
+
+        assertEquals(1, client.broadcasts.get());
+    }
+
+    @Test
+    public void refreshAccessToken_concurrentCallers_startsOneRefreshAndNotifiesAll() throws Exception {
+        final TestSPiDClient client = new TestSPiDClient();
+        final AtomicInteger completed = new AtomicInteger();
+        final SPiDAuthorizationListener listener = new SPiDAuthorizationListener() {
+            @Override
+            public void onComplete() {
+                completed.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Exception exception) {
+            }
+        };
+
+        runConcurrently(new Task() {
+            @Override
+            public void run(int thread) {
+                client.refreshAccessToken(listener);
+            }
+        });
+
+        assertEquals(1, client.refreshes.size());
+        assertTrue(client.isRefreshingAccessToken());
+
+        client.refreshes.get(0).onComplete();
+
+        assertEquals(THREADS, completed.get());
+        assertFalse(client.isRefreshingAccessToken());
+    }
+
+    @Test
+    public void refreshAccessToken_requestParkedAfterQueueDrained_isExecuted() throws Exception {
+        final TestSPiDClient client = new TestSPiDClient();
+        client.setAccessToken(new SPiDAccessToken("access", System.currentTimeMillis() + 3600000, "refresh", "user"));
+        client.refreshAccessToken(null);
+        SPiDRequest request = mock(SPiDRequest.class);
+
+        // The token request drains the queue before it completes the refresh
+        client.runWaitingRequests();
+        client.addWaitingRequest(request);
+        client.refreshAccessToken(null);
+        client.refreshes.get(0).onComplete();
+
+        verify(request, times(1)).execute();
+        assertEquals(0, client.getWaitingRequestsQueueSize());
+        assertFalse(client.isRefreshingAccessToken());
+    }
+
+    @Test
+    public void refreshAccessToken_requestsParkedWhileRefreshCompletes_executesEveryRequestOnce() throws Exception {
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            final TestSPiDClient client = new TestSPiDClient();
+            client.setAccessToken(new SPiDAccessToken("access", System.currentTimeMillis() + 3600000, "refresh", "user"));
+            client.refreshAccessToken(null);
+            final List<SPiDRequest> requests = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                requests.add(mock(SPiDRequest.class));
+            }
+
+            runConcurrently(new Task() {
+                @Override
+                public void run(int thread) {
+                    if (thread == 0) {
+                        // What the token request does when the new access token arrives
+                        client.runWaitingRequests();
+                        client.refreshes.get(0).onComplete();
+                        return;
+                    }
+                    client.addWaitingRequest(requests.get(thread));
+                    client.refreshAccessToken(null);
+                }
+            });
+            // Requests parked after the refresh finished started a new one
+            for (int i = 1; i < client.refreshes.size(); i++) {
+                client.refreshes.get(i).onComplete();
+            }
+
+            assertEquals(0, client.getWaitingRequestsQueueSize());
+            for (int i = 1; i < THREADS; i++) {
+                verify(requests.get(i), times(1)).execute();
+            }
+        }
+    }
+
+    @Test
+    public void beginAuthorizationRequest_concurrentCallers_onlyOneSucceeds() throws Exception {
+        final TestSPiDClient client = new TestSPiDClient();
+        final AtomicInteger started = new AtomicInteger();
+
+        runConcurrently(new Task() {
+            @Override
+            public void run(int thread) {
+                if (client.beginAuthorizationRequest(mock(SPiDAuthorizationListener.class))) {
+                    started.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(1, started.get());
+    }
+
+    private void runConcurrently(final Task task) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        task.run(thread);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    private interface Task {
+        void run(int thread);
+    }
+
+    private static class TestSPiDClient extends SPiDClient {
+        private final AtomicInteger broadcasts = new AtomicInteger();
+        private final List<SPiDAuthorizationListener> refreshes = new ArrayList<>();
+
+        @Override
+        protected void broadcastUserId(String userId) {
+            broadcasts.incrementAndGet();
+        }
+
+        @Override
+        protected void startRefreshRequest(SPiDAuthorizationListener listener) {
+            synchronized (refreshes) {
+                refreshes.add(listener);
+            }
+        }
+    }
+}
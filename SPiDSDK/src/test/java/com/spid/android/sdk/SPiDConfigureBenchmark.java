@@ -0,0 +1,99 @@
+package com.spid.android.sdk;
+
+import android.content.Context;
+
+import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+import com.spid.android.sdk.configuration.SPiDConfiguration;
+import com.spid.android.sdk.configuration.SPiDConfigurationBuilder;
+import com.spid.android.sdk.configuration.SPiDEnvironment;
+import com.spid.android.sdk.http.SPiDHttpTransport;
+import com.spid.android.sdk.keychain.SPiDFileTokenStore;
+import com.spid.android.sdk.keychain.SPiDKeychain;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Microbenchmark for <code>SPiDClient.configure</code> with a stored access token. The background load is the time
+ * configure blocks the calling thread, the synchronous load also waits for the stored access token like configure
+ * did when it loaded the token on the calling thread. The cipher is derived once per process, so both exclude the
+ * first key derivation, see <code>SPiDKeychainCipherBenchmark</code>. The HTTP transport is mocked since Apache
+ * HttpClient needs the platform logging classes. Not a JUnit test, run it with <code>main</code>. The keychain salt
+ * is <code>Settings.Secure.ANDROID_ID</code>, which the JVM PBE provider rejects unless it is 8 bytes, so on a JVM
+ * run it against an android.jar stub with an 8 character ANDROID_ID.
+ */
+public class SPiDConfigureBenchmark {
+
+    private static final String CLIENT_SECRET = "client-secret";
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        File dir = File.createTempFile("spid-configure", null);
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IllegalStateException("Could not create " + dir);
+        }
+        File file = new File(dir, "token");
+        try {
+            Context context = mock(Context.class);
+            when(context.getApplicationContext()).thenReturn(context);
+            when(context.getCacheDir()).thenReturn(dir);
+            when(context.getFilesDir()).thenReturn(dir);
+            SPiDConfiguration config = new SPiDConfigurationBuilder(context, SPiDEnvironment.PRODUCTION, "client-id",
+                    CLIENT_SECRET, "spid-benchmark")
+                    .forgotPasswordURL("https://login.schibsted.com/flow/password")
+                    .tokenStore(new SPiDFileTokenStore(file))
+                    .httpTransport(mock(SPiDHttpTransport.class))
+                    .build();
+            SPiDClient client = SPiDClient.getInstance();
+            client.configure(config);
+            SPiDKeychain.encryptAccessTokenToSharedPreferences(CLIENT_SECRET,
+                    new SPiDAccessToken("access", System.currentTimeMillis() + 3600000, "refresh", "user"));
+
+            report("configure, background load", measure(client, config, false));
+            report("configure, synchronous load", measure(client, config, true));
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+            if (!dir.delete()) {
+                dir.deleteOnExit();
+            }
+        }
+    }
+
+    private static long[] measure(SPiDClient client, SPiDConfiguration config, boolean synchronous) {
+        for (int i = 0; i < WARMUP; i++) {
+            configure(client, config);
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            client.configure(config);
+            if (synchronous) {
+                client.getAccessToken();
+            }
+            samples[i] = System.nanoTime() - start;
+            // Outside the sample so that background loads do not pile up
+            client.getAccessToken();
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static void configure(SPiDClient client, SPiDConfiguration config) {
+        client.configure(config);
+        if (client.getAccessToken() == null) {
+            throw new IllegalStateException("Stored access token was not loaded");
+        }
+    }
+
+    private static void report(String name, long[] samples) {
+        System.out.println(name + ", median: " + TimeUnit.NANOSECONDS.toMicros(samples[samples.length / 2]) + " us");
+        System.out.println(name + ", p95:    " + TimeUnit.NANOSECONDS.toMicros(samples[samples.length * 95 / 100]) + " us");
+    }
+}
@@ -0,0 +1,52 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.http.SPiDHttpResponse;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SPiDHttpResponseTest {
+
+    @Test
+    public void readContent_declaredContentLength_readsWholeBody() throws Exception {
+        byte[] body = new byte[20000];
+        body[body.length - 1] = 1;
+        Map<String, String> headers = new HashMap<>();
+        headers.put("content-length", Integer.toString(body.length));
+
+        SPiDHttpResponse response = new SPiDHttpResponse(200, headers, new ByteArrayInputStream(body));
+
+        assertEquals(body.length, response.getContentLength());
+        assertArrayEquals(body, response.readContent());
+    }
+
+    @Test
+    public void readContent_unknownContentLength_readsWholeBody() throws Exception {
+        byte[] body = new byte[20000];
+        body[body.length - 1] = 1;
+
+        SPiDHttpResponse response = new SPiDHttpResponse(200, new HashMap<String, String>(), new ByteArrayInputStream(body));
+
+        assertEquals(-1, response.getContentLength());
+        assertArrayEquals(body, response.readContent());
+    }
+
+    @Test
+    public void getCharset_declaredInContentType_returnsCharset() throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json; charset=\"ISO-8859-1\"");
+
+        assertEquals("ISO-8859-1", new SPiDHttpResponse(200, headers, null).getCharset());
+    }
+
+    @Test
+    public void getCharset_missingContentType_returnsUtf8() throws Exception {
+        assertEquals(SPiDHttpResponse.DEFAULT_CHARSET, new SPiDHttpResponse(200, new HashMap<String, String>(), null).getCharset());
+    }
+}
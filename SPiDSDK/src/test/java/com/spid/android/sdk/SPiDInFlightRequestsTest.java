@@ -0,0 +1,269 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.listener.SPiDRequestListener;
+import com.spid.android.sdk.request.SPiDInFlightRequests;
+import com.spid.android.sdk.response.SPiDResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class SPiDInFlightRequestsTest {
+
+    private static final String KEY = "https://login.schibsted.com/api/2/user/123";
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 200;
+
+    private SPiDInFlightRequests inFlight;
+    private SPiDResponse response;
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() throws Exception {
+        inFlight = new SPiDInFlightRequests();
+        response = mock(SPiDResponse.class);
+        executorService = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void after() throws Exception {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void join_attemptInFlight_joinsAndIsNotSent() {
+        SPiDInFlightRequests.Attempt first = new SPiDInFlightRequests.Attempt();
+        CountingListener firstListener = new CountingListener();
+        CountingListener joinedListener = new CountingListener();
+
+        assertFalse(inFlight.join(KEY, first, firstListener));
+        assertTrue(inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), joinedListener));
+        inFlight.notifyComplete(first, firstListener, response);
+
+        assertEquals(1, firstListener.completed.get());
+        assertEquals(1, joinedListener.completed.get());
+        assertSame(response, joinedListener.response);
+        assertEquals(0, inFlight.size());
+    }
+
+    @Test
+    public void join_otherKey_isSent() {
+        assertFalse(inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), null));
+
+        assertFalse(inFlight.join(KEY + "/agreements", new SPiDInFlightRequests.Attempt(), null));
+        assertEquals(2, inFlight.size());
+    }
+
+    @Test
+    public void join_afterAttemptFinished_isSentAgain() {
+        SPiDInFlightRequests.Attempt first = new SPiDInFlightRequests.Attempt();
+        inFlight.join(KEY, first, null);
+        inFlight.notifyComplete(first, null, response);
+        CountingListener lateListener = new CountingListener();
+
+        assertFalse(inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), lateListener));
+        assertEquals(0, lateListener.completed.get());
+        assertEquals(1, inFlight.size());
+    }
+
+    @Test
+    public void join_whileAttemptFinishes_callsEveryListenerOnce() throws Exception {
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            final SPiDInFlightRequests.Attempt first = new SPiDInFlightRequests.Attempt();
+            inFlight.join(KEY, first, null);
+            final CountingListener[] listeners = new CountingListener[THREADS];
+            for (int i = 0; i < THREADS; i++) {
+                listeners[i] = new CountingListener();
+            }
+            final List<SPiDInFlightRequests.Attempt> sent = new ArrayList<>();
+            final List<SPiDRequestListener> sentListeners = new ArrayList<>();
+
+            runConcurrently(new Task() {
+                @Override
+                public void run(int thread) {
+                    if (thread == 0) {
+                        inFlight.notifyComplete(first, listeners[0], response);
+                        return;
+                    }
+                    SPiDInFlightRequests.Attempt attempt = new SPiDInFlightRequests.Attempt();
+                    if (!inFlight.join(KEY, attempt, listeners[thread])) {
+                        // Joined too late, the attempt is sent again
+                        synchronized (sent) {
+                            sent.add(attempt);
+                            sentListeners.add(listeners[thread]);
+                        }
+                    }
+                }
+            });
+            for (int i = 0; i < sent.size(); i++) {
+                inFlight.notifyComplete(sent.get(i), sentListeners.get(i), response);
+            }
+
+            for (CountingListener listener : listeners) {
+                assertEquals(1, listener.completed.get());
+            }
+            assertTrue(sent.size() <= 1);
+            assertEquals(0, inFlight.size());
+        }
+    }
+
+    @Test
+    public void notifyComplete_joinedAttempts_callsEveryListenerWithSameResponse() {
+        SPiDInFlightRequests.Attempt first = new SPiDInFlightRequests.Attempt();
+        CountingListener[] listeners = {new CountingListener(), new CountingListener(), new CountingListener()};
+        inFlight.join(KEY, first, listeners[0]);
+        inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), listeners[1]);
+        inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), listeners[2]);
+
+        inFlight.notifyComplete(first, listeners[0], response);
+
+        for (CountingListener listener : listeners) {
+            assertEquals(1, listener.completed.get());
+            assertEquals(0, listener.errors.get());
+            assertSame(response, listener.response);
+        }
+    }
+
+    @Test
+    public void notifyError_joinedAttempts_callsEveryListenerWithError() {
+        SPiDInFlightRequests.Attempt first = new SPiDInFlightRequests.Attempt();
+        CountingListener[] listeners = {new CountingListener(), new CountingListener(), new CountingListener()};
+        inFlight.join(KEY, first, listeners[0]);
+        inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), listeners[1]);
+        inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), listeners[2]);
+        IOException exception = new IOException("Network unreachable");
+
+        inFlight.notifyError(first, listeners[0], exception);
+
+        for (CountingListener listener : listeners) {
+            assertEquals(0, listener.completed.get());
+            assertEquals(1, listener.errors.get());
+            assertSame(exception, listener.exception);
+        }
+    }
+
+    @Test
+    public void notifyComplete_finishedAttempt_onlyCallsOwnListener() {
+        SPiDInFlightRequests.Attempt first = new SPiDInFlightRequests.Attempt();
+        CountingListener joinedListener = new CountingListener();
+        inFlight.join(KEY, first, null);
+        inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), joinedListener);
+        inFlight.notifyComplete(first, null, response);
+        CountingListener ownListener = new CountingListener();
+
+        inFlight.notifyComplete(first, ownListener, response);
+
+        assertEquals(1, joinedListener.completed.get());
+        assertEquals(1, ownListener.completed.get());
+    }
+
+    @Test
+    public void finish_retryAttempt_carriesJoinedListeners() {
+        SPiDInFlightRequests.Attempt first = new SPiDInFlightRequests.Attempt();
+        CountingListener ownListener = new CountingListener();
+        CountingListener joinedListener = new CountingListener();
+        inFlight.join(KEY, first, ownListener);
+        inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), joinedListener);
+
+        SPiDInFlightRequests.Attempt retry = new SPiDInFlightRequests.Attempt(inFlight.finish(first));
+        assertEquals(0, joinedListener.completed.get());
+        assertFalse(inFlight.join(KEY, retry, ownListener));
+        inFlight.notifyComplete(retry, ownListener, response);
+
+        assertEquals(1, ownListener.completed.get());
+        assertEquals(1, joinedListener.completed.get());
+    }
+
+    @Test
+    public void join_retryAttemptWhileOtherAttemptInFlight_movesJoinedListeners() {
+        SPiDInFlightRequests.Attempt first = new SPiDInFlightRequests.Attempt();
+        CountingListener ownListener = new CountingListener();
+        CountingListener joinedListener = new CountingListener();
+        inFlight.join(KEY, first, ownListener);
+        inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), joinedListener);
+        SPiDInFlightRequests.Attempt retry = new SPiDInFlightRequests.Attempt(inFlight.finish(first));
+        // A new request is sent while the retry waits for its backoff delay
+        SPiDInFlightRequests.Attempt other = new SPiDInFlightRequests.Attempt();
+        CountingListener otherListener = new CountingListener();
+        assertFalse(inFlight.join(KEY, other, otherListener));
+
+        // The retry is not sent, it joins the new request together with the listeners it carries
+        assertTrue(inFlight.join(KEY, retry, ownListener));
+        inFlight.notifyComplete(other, otherListener, response);
+
+        assertEquals(1, ownListener.completed.get());
+        assertEquals(1, joinedListener.completed.get());
+        assertEquals(1, otherListener.completed.get());
+    }
+
+    @Test
+    public void finish_twice_returnsJoinedListenersOnce() {
+        SPiDInFlightRequests.Attempt first = new SPiDInFlightRequests.Attempt();
+        inFlight.join(KEY, first, null);
+        inFlight.join(KEY, new SPiDInFlightRequests.Attempt(), new CountingListener());
+
+        assertEquals(1, inFlight.finish(first).size());
+        assertTrue(inFlight.finish(first).isEmpty());
+    }
+
+    private void runConcurrently(final Task task) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        task.run(thread);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    private interface Task {
+        void run(int thread);
+    }
+
+    private static class CountingListener implements SPiDRequestListener {
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private volatile SPiDResponse response;
+        private volatile Exception exception;
+
+        @Override
+        public void onComplete(SPiDResponse result) {
+            response = result;
+            completed.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            this.exception = exception;
+            errors.incrementAndGet();
+        }
+    }
+}
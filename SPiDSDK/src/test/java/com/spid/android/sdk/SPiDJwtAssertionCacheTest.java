@@ -0,0 +1,79 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.configuration.TokenType;
+import com.spid.android.sdk.jwt.SPiDJwt;
+import com.spid.android.sdk.jwt.SPiDJwtAssertionCache;
+import com.spid.android.sdk.jwt.SubjectClaim;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class SPiDJwtAssertionCacheTest {
+
+    private static final long MIN_REMAINING = 60000;
+
+    @Test
+    public void getAssertion_sameToken_reusesSignedAssertion() throws Exception {
+        TestAssertionCache cache = new TestAssertionCache(4);
+
+        String first = cache.getAssertion("app", SubjectClaim.AUTHORIZATION, "aud", inMillis(3600000), TokenType.GOOGLE_PLUS, "token");
+        String second = cache.getAssertion("app", SubjectClaim.AUTHORIZATION, "aud", inMillis(3600000), TokenType.GOOGLE_PLUS, "token");
+
+        assertEquals(first, second);
+        assertEquals(1, cache.signed);
+    }
+
+    @Test
+    public void getAssertion_differentToken_signsNewAssertion() throws Exception {
+        TestAssertionCache cache = new TestAssertionCache(4);
+
+        String first = cache.getAssertion("app", SubjectClaim.AUTHORIZATION, "aud", inMillis(3600000), TokenType.GOOGLE_PLUS, "token");
+        String second = cache.getAssertion("app", SubjectClaim.AUTHORIZATION, "aud", inMillis(3600000), TokenType.GOOGLE_PLUS, "other");
+
+        assertNotEquals(first, second);
+        assertEquals(2, cache.signed);
+    }
+
+    @Test
+    public void getAssertion_assertionNearExpiry_signsNewAssertion() throws Exception {
+        TestAssertionCache cache = new TestAssertionCache(4);
+
+        cache.getAssertion("app", SubjectClaim.AUTHORIZATION, "aud", inMillis(MIN_REMAINING / 2), TokenType.FACEBOOK, "token");
+        cache.getAssertion("app", SubjectClaim.AUTHORIZATION, "aud", inMillis(3600000), TokenType.FACEBOOK, "token");
+
+        assertEquals(2, cache.signed);
+    }
+
+    @Test
+    public void getAssertion_moreTokensThanMaxEntries_evictsLeastRecentlyUsed() throws Exception {
+        TestAssertionCache cache = new TestAssertionCache(2);
+
+        cache.getAssertion("app", SubjectClaim.AUTHORIZATION, "aud", inMillis(3600000), TokenType.FACEBOOK, "first");
+        cache.getAssertion("app", SubjectClaim.AUTHORIZATION, "aud", inMillis(3600000), TokenType.FACEBOOK, "second");
+        cache.getAssertion("app", SubjectClaim.AUTHORIZATION, "aud", inMillis(3600000), TokenType.FACEBOOK, "third");
+        cache.getAssertion("app", SubjectClaim.AUTHORIZATION, "aud", inMillis(3600000), TokenType.FACEBOOK, "first");
+
+        assertEquals(4, cache.signed);
+    }
+
+    private static Date inMillis(long millis) {
+        return new Date(System.currentTimeMillis() + millis);
+    }
+
+    private static class TestAssertionCache extends SPiDJwtAssertionCache {
+        private int signed;
+
+        TestAssertionCache(int maxEntries) {
+            super(maxEntries, MIN_REMAINING);
+        }
+
+        @Override
+        protected String sign(SPiDJwt jwt) {
+            return "assertion" + (++signed);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.spid.android.sdk;
+
+import android.content.Context;
+
+import com.spid.android.sdk.configuration.SPiDConfiguration;
+import com.spid.android.sdk.configuration.SPiDConfigurationBuilder;
+import com.spid.android.sdk.configuration.SPiDEnvironment;
+import com.spid.android.sdk.configuration.TokenType;
+import com.spid.android.sdk.http.SPiDHttpTransport;
+import com.spid.android.sdk.jwt.Audience;
+import com.spid.android.sdk.jwt.SPiDJwt;
+import com.spid.android.sdk.jwt.SubjectClaim;
+import com.spid.android.sdk.keychain.SPiDFileTokenStore;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Microbenchmark for <code>SPiDJwt.encodedJwtString</code> with the JWTs signed for a Facebook token request, a
+ * Google+ token request and a Facebook signup, i.e. the work done when the assertion cache misses. Not a JUnit
+ * test, run it with <code>main</code> on a JVM.
+ */
+public class SPiDJwtBenchmark {
+
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 100000;
+
+    public static void main(String[] args) throws Exception {
+        File file = File.createTempFile("spid-token", null);
+        try {
+            Context context = mock(Context.class);
+            when(context.getApplicationContext()).thenReturn(context);
+            SPiDConfiguration config = new SPiDConfigurationBuilder(context, SPiDEnvironment.PRODUCTION, "client-id",
+                    "client-secret", "spid-benchmark")
+                    .signSecret("sign-secret")
+                    .forgotPasswordURL("https://login.schibsted.com/flow/password")
+                    .tokenStore(new SPiDFileTokenStore(file))
+                    .httpTransport(mock(SPiDHttpTransport.class))
+                    .build();
+            SPiDClient.getInstance().configure(config);
+
+            Date expirationDate = new Date(System.currentTimeMillis() + 3600000);
+            String socialToken = "EAACEdEose0cBAKZCZBqZBZCZBqZBZCEAACEdEose0cBAKZCZBqZBZCZBqZBZCEAACEdEose0cBAKZCZBqZBZC";
+            SPiDJwt facebook = new SPiDJwt("1234567890", SubjectClaim.AUTHORIZATION, config.getTokenURL(),
+                    expirationDate, TokenType.FACEBOOK, socialToken);
+            SPiDJwt googlePlus = new SPiDJwt("com.example.app", SubjectClaim.AUTHORIZATION, config.getTokenURL(),
+                    expirationDate, TokenType.GOOGLE_PLUS, socialToken);
+            SPiDJwt signup = new SPiDJwt("1234567890", SubjectClaim.REGISTRATION,
+                    config.getServerURL() + Audience.SIGN_UP.toString(), expirationDate, TokenType.FACEBOOK, socialToken);
+
+            measure(facebook, WARMUP);
+            measure(googlePlus, WARMUP);
+            measure(signup, WARMUP);
+            report("Facebook token request", measure(facebook, ITERATIONS));
+            report("Google+ token request", measure(googlePlus, ITERATIONS));
+            report("Facebook signup", measure(signup, ITERATIONS));
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    private static long[] measure(SPiDJwt jwt, int iterations) {
+        long[] samples = new long[iterations];
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            sink += jwt.encodedJwtString().length();
+            samples[i] = System.nanoTime() - start;
+        }
+        if (sink == 0) {
+            throw new IllegalStateException("Nothing was encoded");
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static void report(String name, long[] samples) {
+        System.out.println(name + ", median: " + samples[samples.length / 2] + " ns");
+        System.out.println(name + ", p95:    " + samples[samples.length * 95 / 100] + " ns");
+    }
+}
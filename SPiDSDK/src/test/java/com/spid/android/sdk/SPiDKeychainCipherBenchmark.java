@@ -0,0 +1,69 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.keychain.SPiDKeychainCipher;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.PBEParameterSpec;
+
+/**
+ * Microbenchmark comparing a key derivation per keychain value, as done before the cipher cache, with the cached
+ * <code>SPiDKeychainCipher</code>. Not a JUnit test, run it with <code>main</code> on a JVM.
+ */
+public class SPiDKeychainCipherBenchmark {
+
+    private static final String KEY = "encryption-key";
+    private static final String SALT = "12345678";
+    private static final int WARMUP = 2000;
+    private static final int ITERATIONS = 20000;
+
+    public static void main(String[] args) throws Exception {
+        byte[] value = "access-token-value".getBytes("UTF-8");
+        Operation derivePerValue = new Operation() {
+            @Override
+            public byte[] run(byte[] bytes) throws Exception {
+                SecretKey key = SecretKeyFactory.getInstance("PBEWithMD5AndDES").generateSecret(new PBEKeySpec(KEY.toCharArray()));
+                Cipher cipher = Cipher.getInstance("PBEWithMD5AndDES");
+                cipher.init(Cipher.ENCRYPT_MODE, key, new PBEParameterSpec(SALT.getBytes("UTF-8"), 20));
+                return cipher.doFinal(bytes);
+            }
+        };
+        Operation cached = new Operation() {
+            @Override
+            public byte[] run(byte[] bytes) throws Exception {
+                return SPiDKeychainCipher.getInstance(KEY, SALT).encrypt(bytes);
+            }
+        };
+
+        measure(derivePerValue, value, WARMUP);
+        measure(cached, value, WARMUP);
+        long derive = measure(derivePerValue, value, ITERATIONS);
+        long reuse = measure(cached, value, ITERATIONS);
+        System.out.println("Derive per value: " + derive / ITERATIONS + " ns/op");
+        System.out.println("Cached cipher:    " + reuse / ITERATIONS + " ns/op");
+        // A token save encrypts four values
+        System.out.println("Token save, derive per value: "
+                + TimeUnit.NANOSECONDS.toMicros(4 * derive / ITERATIONS) + " us");
+    }
+
+    private static long measure(Operation operation, byte[] value, int iterations) throws Exception {
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += operation.run(value).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 0) {
+            throw new IllegalStateException("Nothing was encrypted");
+        }
+        return elapsed;
+    }
+
+    private interface Operation {
+        byte[] run(byte[] bytes) throws Exception;
+    }
+}
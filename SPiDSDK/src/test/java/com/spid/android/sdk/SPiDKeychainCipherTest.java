@@ -0,0 +1,67 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.keychain.SPiDKeychainCipher;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.PBEParameterSpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class SPiDKeychainCipherTest {
+
+    private static final String SALT = "12345678";
+
+    @Test
+    public void decrypt_encryptedValue_returnsOriginalValue() throws Exception {
+        SPiDKeychainCipher cipher = new SPiDKeychainCipher("encryption-key", SALT);
+        byte[] value = "access-token".getBytes("UTF-8");
+
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(value, cipher.decrypt(cipher.encrypt(value)));
+        }
+    }
+
+    @Test
+    public void encrypt_reusedCipher_matchesFreshlyDerivedCipher() throws Exception {
+        SPiDKeychainCipher cipher = new SPiDKeychainCipher("encryption-key", SALT);
+        byte[] value = "1234567890".getBytes("UTF-8");
+
+        Cipher expected = Cipher.getInstance("PBEWithMD5AndDES");
+        expected.init(Cipher.ENCRYPT_MODE,
+                SecretKeyFactory.getInstance("PBEWithMD5AndDES").generateSecret(new PBEKeySpec("encryption-key".toCharArray())),
+                new PBEParameterSpec(SALT.getBytes("UTF-8"), 20));
+
+        cipher.encrypt("warm up".getBytes("UTF-8"));
+        assertEquals(Arrays.toString(expected.doFinal(value)), Arrays.toString(cipher.encrypt(value)));
+    }
+
+    @Test
+    public void getInstance_sameKey_returnsCachedCipher() throws Exception {
+        SPiDKeychainCipher first = SPiDKeychainCipher.getInstance("encryption-key", SALT);
+
+        assertSame(first, SPiDKeychainCipher.getInstance("encryption-key", SALT));
+        assertNotSame(first, SPiDKeychainCipher.getInstance("other-key", SALT));
+    }
+
+    @Test
+    public void getInstance_sameKeyOtherSalt_derivesCipherFromThatSalt() throws Exception {
+        byte[] value = "access-token".getBytes("UTF-8");
+        SPiDKeychainCipher first = SPiDKeychainCipher.getInstance("encryption-key", SALT);
+        SPiDKeychainCipher second = SPiDKeychainCipher.getInstance("encryption-key", "87654321");
+
+        assertNotSame(first, second);
+        assertArrayEquals(new SPiDKeychainCipher("encryption-key", "87654321").encrypt(value), second.encrypt(value));
+        assertFalse(Arrays.equals(first.encrypt(value), second.encrypt(value)));
+        assertSame(first, SPiDKeychainCipher.getInstance("encryption-key", SALT));
+    }
+}
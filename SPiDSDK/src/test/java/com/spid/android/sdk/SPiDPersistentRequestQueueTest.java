@@ -0,0 +1,116 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.request.SPiDPersistentRequestQueue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SPiDPersistentRequestQueueTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "queue");
+    }
+
+    @Test
+    public void takeReplayable_activeEntry_isNotReturned() {
+        SPiDPersistentRequestQueue queue = new SPiDPersistentRequestQueue(file, DIRECT);
+        queue.add(createEntry("1"));
+
+        assertTrue(queue.takeReplayable().isEmpty());
+
+        queue.release("1");
+        assertEquals(1, queue.takeReplayable().size());
+        assertTrue(queue.takeReplayable().isEmpty());
+    }
+
+    @Test
+    public void takeReplayable_newInstance_returnsStoredEntriesInOrder() {
+        SPiDPersistentRequestQueue queue = new SPiDPersistentRequestQueue(file, DIRECT);
+        queue.add(createEntry("1"));
+        queue.add(createEntry("2"));
+        queue.add(createEntry("3"));
+        queue.remove("2");
+
+        List<SPiDPersistentRequestQueue.Entry> entries = new SPiDPersistentRequestQueue(file, DIRECT).takeReplayable();
+
+        assertEquals(2, entries.size());
+        assertEquals("1", entries.get(0).getId());
+        assertEquals("3", entries.get(1).getId());
+        SPiDPersistentRequestQueue.Entry entry = entries.get(0);
+        assertEquals("POST", entry.getMethod());
+        assertEquals("https://example.com/api/2/user/1/agreements/accept", entry.getUrl());
+        assertEquals("1", entry.getHeaders().get("Idempotency-Key"));
+        assertEquals("value", entry.getBody().get("key"));
+        assertEquals(null, entry.getBody().get("empty"));
+        assertEquals(1, entry.getRetryCount());
+    }
+
+    @Test
+    public void takeReplayable_newInstance_storesIncreasedReplayCount() {
+        new SPiDPersistentRequestQueue(file, DIRECT).add(createEntry("1"));
+        new SPiDPersistentRequestQueue(file, DIRECT).takeReplayable();
+
+        List<SPiDPersistentRequestQueue.Entry> entries = new SPiDPersistentRequestQueue(file, DIRECT).takeReplayable();
+
+        assertEquals(1, entries.size());
+        assertEquals(2, entries.get(0).getRetryCount());
+    }
+
+    @Test
+    public void takeReplayable_maxReplaysReached_removesEntry() {
+        SPiDPersistentRequestQueue queue = new SPiDPersistentRequestQueue(file, DIRECT, 2);
+        queue.add(createEntry("1"));
+        queue.release("1");
+        assertEquals(1, queue.takeReplayable().size());
+        queue.release("1");
+        assertEquals(1, queue.takeReplayable().size());
+        queue.release("1");
+
+        assertTrue(queue.takeReplayable().isEmpty());
+        assertEquals(0, queue.size());
+        assertEquals(0, new SPiDPersistentRequestQueue(file, DIRECT, 2).size());
+    }
+
+    @Test
+    public void clear_removesStoredEntries() {
+        SPiDPersistentRequestQueue queue = new SPiDPersistentRequestQueue(file, DIRECT);
+        queue.add(createEntry("1"));
+        queue.clear();
+
+        assertEquals(0, queue.size());
+        assertEquals(0, new SPiDPersistentRequestQueue(file, DIRECT).size());
+    }
+
+    private static SPiDPersistentRequestQueue.Entry createEntry(String id) {
+        Map<String, String> body = new HashMap<>();
+        body.put("key", "value");
+        body.put("empty", null);
+        return new SPiDPersistentRequestQueue.Entry(id, "POST", "https://example.com/api/2/user/1/agreements/accept",
+                Collections.singletonMap("Idempotency-Key", id), Collections.<String, String>emptyMap(), body, 0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.ratelimit.SPiDRateLimit;
+import com.spid.android.sdk.ratelimit.SPiDRateLimiter;
+import com.spid.android.sdk.ratelimit.SPiDTokenBucket;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SPiDRateLimiterTest {
+
+    private static final String TOKEN_URL = "https://login.schibsted.com/oauth/token";
+    private static final String USER_URL = "https://login.schibsted.com/api/2/user/123";
+
+    @Test
+    public void tryAcquire_burstAboveCapacity_waitsForRefill() {
+        SPiDTokenBucket bucket = new SPiDTokenBucket(new SPiDRateLimit(2, 4), 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(250, bucket.tryAcquire(0));
+        assertEquals(150, bucket.tryAcquire(100));
+        assertEquals(0, bucket.tryAcquire(250));
+    }
+
+    @Test
+    public void tryAcquire_longIdle_refillsUpToCapacity() {
+        SPiDTokenBucket bucket = new SPiDTokenBucket(new SPiDRateLimit(2, 4), 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        assertEquals(0, bucket.tryAcquire(60000));
+        assertEquals(0, bucket.tryAcquire(60000));
+        assertEquals(250, bucket.tryAcquire(60000));
+    }
+
+    @Test
+    public void acquire_endpointClasses_haveSeparateBuckets() {
+        SPiDRateLimiter limiter = new SPiDRateLimiter(new SPiDRateLimit(1, 1), null);
+
+        assertEquals(0, limiter.acquire(TOKEN_URL, 0));
+        assertEquals(1000, limiter.acquire(TOKEN_URL, 0));
+        assertEquals(0, limiter.acquire(USER_URL, 0));
+        assertEquals(0, limiter.acquire(USER_URL, 0));
+    }
+
+    @Test
+    public void onResponse_retryAfterSeconds_pausesEndpoint() {
+        SPiDRateLimiter limiter = new SPiDRateLimiter(null, null);
+        limiter.onResponse(USER_URL, SPiDRateLimiter.HTTP_TOO_MANY_REQUESTS, "30", 1000);
+
+        assertEquals(20000, limiter.acquire("https://login.schibsted.com/api/2/user/456", 11000));
+        assertEquals(0, limiter.acquire(USER_URL + "/agreements", 11000));
+        assertEquals(0, limiter.acquire(USER_URL, 31000));
+    }
+
+    @Test
+    public void onResponse_successWithRetryAfter_doesNotPause() {
+        SPiDRateLimiter limiter = new SPiDRateLimiter(null, null);
+        limiter.onResponse(USER_URL, 200, "30", 0);
+
+        assertEquals(0, limiter.getPauseRemaining(USER_URL, 0));
+    }
+
+    @Test
+    public void parseRetryAfter_formats_returnsMilliseconds() {
+        assertEquals(120000, SPiDRateLimiter.parseRetryAfter(" 120 ", 0));
+        assertEquals(60000, SPiDRateLimiter.parseRetryAfter("Sun, 06 Nov 1994 08:49:37 GMT", 784111717000L));
+        assertEquals(0, SPiDRateLimiter.parseRetryAfter("Sun, 06 Nov 1994 08:49:37 GMT", 784111777001L));
+        assertEquals(-1, SPiDRateLimiter.parseRetryAfter("soon", 0));
+        assertEquals(-1, SPiDRateLimiter.parseRetryAfter(null, 0));
+    }
+
+    @Test
+    public void classify_urls_returnsEndpointClass() {
+        assertEquals(SPiDRateLimiter.EndpointClass.TOKEN, SPiDRateLimiter.classify(TOKEN_URL));
+        assertEquals(SPiDRateLimiter.EndpointClass.API, SPiDRateLimiter.classify(USER_URL));
+        assertEquals(SPiDRateLimiter.EndpointClass.OTHER, SPiDRateLimiter.classify("https://login.schibsted.com/logout"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreaker;
+import com.spid.android.sdk.circuitbreaker.SPiDCircuitBreakerPolicy;
+import com.spid.android.sdk.http.SPiDHttpRequest;
+import com.spid.android.sdk.http.SPiDHttpResponse;
+import com.spid.android.sdk.http.SPiDInMemoryHttpTransport;
+import com.spid.android.sdk.request.SPiDRequestHandle;
+import com.spid.android.sdk.request.SPiDRequestRegistry;
+
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SPiDRequestCancellationTest {
+
+    private static final String SCREEN = "screen";
+
+    @Test
+    public void cancel_registryWithTag_cancelsOnlyTaggedRequests() {
+        SPiDRequestRegistry registry = new SPiDRequestRegistry();
+        SPiDRequestHandle tagged = new SPiDRequestHandle();
+        tagged.addTag(SCREEN);
+        SPiDRequestHandle other = new SPiDRequestHandle();
+        other.addTag("other");
+        registry.register(tagged);
+        registry.register(other);
+
+        assertEquals(1, registry.cancel(SCREEN));
+        assertTrue(tagged.isCancelled());
+        assertFalse(other.isCancelled());
+        assertEquals(1, registry.size());
+        assertEquals(0, registry.cancel(SCREEN));
+    }
+
+    @Test
+    public void cancel_twice_onlyFirstCallCancels() {
+        SPiDRequestHandle handle = new SPiDRequestHandle();
+
+        assertTrue(handle.cancel());
+        assertFalse(handle.cancel());
+    }
+
+    @Test
+    public void abort_connectionSet_closesConnection() throws Exception {
+        SPiDHttpRequest request = createHttpRequest();
+        final AtomicInteger closed = new AtomicInteger();
+        request.setConnection(new Closeable() {
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        });
+
+        request.abort();
+
+        assertTrue(request.isAborted());
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void setConnection_afterAbort_closesConnectionAndThrows() {
+        SPiDHttpRequest request = createHttpRequest();
+        final AtomicInteger closed = new AtomicInteger();
+        request.abort();
+
+        try {
+            request.setConnection(new Closeable() {
+                @Override
+                public void close() {
+                    closed.incrementAndGet();
+                }
+            });
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertEquals(1, closed.get());
+        }
+    }
+
+    @Test
+    public void execute_abortedRequest_isNotHandled() {
+        final AtomicInteger handled = new AtomicInteger();
+        SPiDInMemoryHttpTransport transport = new SPiDInMemoryHttpTransport(new SPiDInMemoryHttpTransport.Handler() {
+            @Override
+            public SPiDHttpResponse handle(SPiDHttpRequest request) throws IOException {
+                handled.incrementAndGet();
+                return SPiDInMemoryHttpTransport.createResponse(200, "{}");
+            }
+        });
+        SPiDHttpRequest request = createHttpRequest();
+        request.abort();
+
+        try {
+            transport.execute(request);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertEquals(0, handled.get());
+        }
+    }
+
+    @Test
+    public void onCancelled_halfOpenProbe_releasesSlot() {
+        SPiDCircuitBreaker breaker = new SPiDCircuitBreaker("endpoint", new SPiDCircuitBreakerPolicy(1, 1, 0.5f, 0, 1), null);
+        breaker.onFailure(0);
+        assertTrue(breaker.allowRequest(0));
+        assertFalse(breaker.allowRequest(0));
+
+        breaker.onCancelled();
+
+        assertEquals(SPiDCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest(0));
+    }
+
+    private static SPiDHttpRequest createHttpRequest() {
+        return new SPiDHttpRequest("GET", "https://login.schibsted.com/api/2/user/123",
+                Collections.<String, String>emptyMap(), null);
+    }
+}
@@ -0,0 +1,263 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.request.SPiDRequestExecutor;
+import com.spid.android.sdk.request.SPiDRequestPriority;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SPiDRequestExecutorTest {
+
+    private SPiDRequestExecutor executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new SPiDRequestExecutor(2);
+    }
+
+    @After
+    public void after() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void execute_twoRequests_runInParallel() throws Exception {
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < 2; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    await(release);
+                }
+            });
+        }
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void execute_moreRequestsThanLimit_capsConcurrency() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(6);
+
+        for (int i = 0; i < 6; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    int current = running.incrementAndGet();
+                    int max = maxRunning.get();
+                    while (current > max && !maxRunning.compareAndSet(max, current)) {
+                        max = maxRunning.get();
+                    }
+                    sleep(20);
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void execute_waitingRequests_startInPriorityOrder() throws Exception {
+        executor.shutdownNow();
+        executor = new SPiDRequestExecutor(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(3);
+        final List<SPiDRequestPriority> order = Collections.synchronizedList(new ArrayList<SPiDRequestPriority>());
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                await(release);
+            }
+        });
+        for (final SPiDRequestPriority priority : Arrays.asList(SPiDRequestPriority.BACKGROUND,
+                SPiDRequestPriority.INTERACTIVE, SPiDRequestPriority.CRITICAL)) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    order.add(priority);
+                    done.countDown();
+                }
+            }, priority);
+        }
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(SPiDRequestPriority.CRITICAL, SPiDRequestPriority.INTERACTIVE,
+                SPiDRequestPriority.BACKGROUND), order);
+    }
+
+    @Test
+    public void execute_backgroundRequestsAboveLimit_leaveSlotsForInteractive() throws Exception {
+        executor.shutdownNow();
+        executor = new SPiDRequestExecutor(3, 1);
+        final AtomicInteger backgroundStarted = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch interactiveStarted = new CountDownLatch(1);
+        final CountDownLatch backgroundRunning = new CountDownLatch(1);
+
+        for (int i = 0; i < 3; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    backgroundStarted.incrementAndGet();
+                    backgroundRunning.countDown();
+                    await(release);
+                }
+            }, SPiDRequestPriority.BACKGROUND);
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                interactiveStarted.countDown();
+            }
+        });
+
+        assertTrue(interactiveStarted.await(5, TimeUnit.SECONDS));
+        // The background request holding a slot may start after the interactive one
+        assertTrue(backgroundRunning.await(5, TimeUnit.SECONDS));
+        assertEquals(1, backgroundStarted.get());
+        release.countDown();
+    }
+
+    @Test
+    public void execute_backgroundLimitAtMaximum_leavesSlotForInteractive() throws Exception {
+        executor.shutdownNow();
+        executor = new SPiDRequestExecutor(2, 2);
+        final AtomicInteger backgroundStarted = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch interactiveStarted = new CountDownLatch(1);
+        final CountDownLatch backgroundRunning = new CountDownLatch(1);
+
+        for (int i = 0; i < 2; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    backgroundStarted.incrementAndGet();
+                    backgroundRunning.countDown();
+                    await(release);
+                }
+            }, SPiDRequestPriority.BACKGROUND);
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                interactiveStarted.countDown();
+            }
+        });
+
+        assertTrue(interactiveStarted.await(5, TimeUnit.SECONDS));
+        // The background request holding a slot may start after the interactive one
+        assertTrue(backgroundRunning.await(5, TimeUnit.SECONDS));
+        assertEquals(1, backgroundStarted.get());
+        release.countDown();
+    }
+
+    @Test
+    public void shutdown_waitingRequests_stillRun() throws Exception {
+        executor.shutdownNow();
+        executor = new SPiDRequestExecutor(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                await(release);
+            }
+        });
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+        executor.shutdown();
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void runOnTermination_requestRunning_waitsForRequest() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch terminated = new CountDownLatch(1);
+        final AtomicInteger finishedRequests = new AtomicInteger();
+        final AtomicInteger finishedAtTermination = new AtomicInteger(-1);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                await(release);
+                finishedRequests.incrementAndGet();
+            }
+        });
+        executor.shutdown();
+        executor.runOnTermination(new Runnable() {
+            @Override
+            public void run() {
+                finishedAtTermination.set(finishedRequests.get());
+                terminated.countDown();
+            }
+        });
+
+        assertEquals(1, terminated.getCount());
+        release.countDown();
+        assertTrue(terminated.await(5, TimeUnit.SECONDS));
+        assertEquals(1, finishedAtTermination.get());
+    }
+
+    @Test
+    public void runOnTermination_alreadyTerminated_runsAtOnce() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        executor.runOnTermination(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, runs.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.cache.SPiDCacheEntry;
+import com.spid.android.sdk.cache.SPiDResponseCache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SPiDResponseCacheTest {
+
+    private static final long NOW = 1400000000000L;
+    private static final String KEY = "client-secret";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void createKey_differentAccessToken_returnsSameKey() throws Exception {
+        Map<String, String> first = new HashMap<>();
+        first.put("oauth_token", "first");
+        first.put("fields", "name");
+        Map<String, String> second = new HashMap<>();
+        second.put("fields", "name");
+        second.put("oauth_token", "second");
+
+        assertEquals(SPiDResponseCache.createKey("https://spid/api/2/user/1", first, "1"),
+                SPiDResponseCache.createKey("https://spid/api/2/user/1", second, "1"));
+    }
+
+    @Test
+    public void createKey_differentUser_returnsDifferentKey() throws Exception {
+        Map<String, String> query = new HashMap<>();
+
+        assertNotEquals(SPiDResponseCache.createKey("https://spid/api/2/me", query, "1"),
+                SPiDResponseCache.createKey("https://spid/api/2/me", query, "2"));
+    }
+
+    @Test
+    public void get_newCacheInstance_readsEntryFromDisk() throws Exception {
+        new SPiDResponseCache(folder.getRoot(), KEY, 10000, 10000).put("key", createEntry(100));
+
+        SPiDCacheEntry entry = new SPiDResponseCache(folder.getRoot(), KEY, 10000, 10000).get("key");
+
+        assertNotNull(entry);
+        assertArrayEquals(new byte[100], entry.getBody());
+        assertEquals("\"etag\"", entry.getEtag());
+    }
+
+    @Test
+    public void put_authorizedBody_isEncryptedOnDisk() throws Exception {
+        byte[] body = "{\"email\":\"user@example.com\"}".getBytes("UTF-8");
+        new SPiDResponseCache(folder.getRoot(), KEY, 10000, 10000).put("key",
+                new SPiDCacheEntry(200, "application/json", body, "\"etag\"", null, NOW));
+
+        for (File file : folder.getRoot().listFiles()) {
+            assertFalse(new String(readFile(file), "ISO-8859-1").contains("user@example.com"));
+        }
+        assertArrayEquals(body, new SPiDResponseCache(folder.getRoot(), KEY, 10000, 10000).get("key").getBody());
+    }
+
+    @Test
+    public void get_otherEncryptionKey_removesEntry() throws Exception {
+        new SPiDResponseCache(folder.getRoot(), KEY, 10000, 10000).put("key", createEntry(100));
+
+        assertNull(new SPiDResponseCache(folder.getRoot(), "other-secret", 10000, 10000).get("key"));
+        assertNull(new SPiDResponseCache(folder.getRoot(), KEY, 10000, 10000).get("key"));
+    }
+
+    @Test
+    public void put_overDiskSize_evictsLeastRecentlyUsed() throws Exception {
+        SPiDResponseCache cache = new SPiDResponseCache(folder.getRoot(), KEY, 500, 0);
+        cache.put("first", createEntry(200));
+        cache.put("second", createEntry(200));
+        cache.get("first");
+        cache.put("third", createEntry(200));
+
+        assertNotNull(cache.get("first"));
+        assertNull(cache.get("second"));
+        assertNotNull(cache.get("third"));
+    }
+
+    @Test
+    public void clear_withEntries_removesEntries() throws Exception {
+        SPiDResponseCache cache = new SPiDResponseCache(folder.getRoot(), KEY, 10000, 10000);
+        cache.put("key", createEntry(100));
+
+        cache.clear();
+
+        assertNull(cache.get("key"));
+        assertNull(new SPiDResponseCache(folder.getRoot(), KEY, 10000, 10000).get("key"));
+    }
+
+    @Test
+    public void fromResponse_noStore_returnsNull() throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "private, no-store");
+        headers.put("ETag", "\"etag\"");
+
+        assertNull(SPiDCacheEntry.fromResponse(200, headers, new byte[0], NOW));
+    }
+
+    @Test
+    public void fromResponse_maxAge_isFreshUntilExpiry() throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("cache-control", "max-age=60");
+
+        SPiDCacheEntry entry = SPiDCacheEntry.fromResponse(200, headers, new byte[0], NOW);
+
+        assertTrue(entry.isFresh(NOW + 59000));
+        assertFalse(entry.isFresh(NOW + 60000));
+    }
+
+    @Test
+    public void fromResponse_expiresWithoutMaxAge_isFreshForExpiresLifetime() throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Date", "Sun, 06 Nov 1994 08:49:37 GMT");
+        headers.put("Expires", "Sun, 06 Nov 1994 08:50:37 GMT");
+
+        SPiDCacheEntry entry = SPiDCacheEntry.fromResponse(200, headers, new byte[0], NOW);
+
+        assertTrue(entry.isFresh(NOW + 59000));
+        assertFalse(entry.isFresh(NOW + 60000));
+    }
+
+    @Test
+    public void fromResponse_maxAgeAndExpires_usesMaxAge() throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "max-age=10");
+        headers.put("Date", "Sun, 06 Nov 1994 08:49:37 GMT");
+        headers.put("Expires", "Sun, 06 Nov 1994 08:50:37 GMT");
+
+        SPiDCacheEntry entry = SPiDCacheEntry.fromResponse(200, headers, new byte[0], NOW);
+
+        assertTrue(entry.isFresh(NOW + 9000));
+        assertFalse(entry.isFresh(NOW + 10000));
+    }
+
+    @Test
+    public void fromResponse_invalidExpires_isNotStored() throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Expires", "0");
+
+        assertNull(SPiDCacheEntry.fromResponse(200, headers, new byte[0], NOW));
+    }
+
+    @Test
+    public void revalidated_notModified_keepsBodyAndExtendsFreshness() throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "max-age=60");
+
+        SPiDCacheEntry entry = createEntry(10).revalidated(headers, NOW);
+
+        assertArrayEquals(new byte[10], entry.getBody());
+        assertEquals("\"etag\"", entry.getEtag());
+        assertTrue(entry.isFresh(NOW + 1000));
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            randomAccessFile.readFully(content);
+        } finally {
+            randomAccessFile.close();
+        }
+        return content;
+    }
+
+    private static SPiDCacheEntry createEntry(int size) {
+        return new SPiDCacheEntry(200, "application/json", new byte[size], "\"etag\"", null, NOW);
+    }
+}
@@ -0,0 +1,149 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.exceptions.SPiDException;
+import com.spid.android.sdk.http.SPiDHttpResponse;
+import com.spid.android.sdk.response.SPiDJsonParser;
+import com.spid.android.sdk.response.SPiDResponse;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SPiDResponseTest {
+
+    private static final String USER = "{\"name\":\"user\",\"data\":{\"userId\":\"1\",\"emails\":[\"a@b.c\"]}}";
+    private static final String ERROR = "{\"error\":\"invalid_grant\",\"error_description\":\"Expired\"}";
+
+    @Test
+    public void getJsonObject_successfulResponse_parsesOnFirstAccess() throws Exception {
+        SPiDResponse response = new SPiDResponse(httpResponse(200, USER));
+
+        assertNull(parsedJsonObject(response));
+        JSONObject jsonObject = response.getJsonObject();
+
+        assertEquals(SPiDJsonParser.parseObject(USER.getBytes("UTF-8"), "UTF-8").toString(), jsonObject.toString());
+        assertSame(jsonObject, response.getJsonObject());
+    }
+
+    @Test
+    public void getJsonObject_successfulResponse_equalsErrorResponseParsedEagerly() throws Exception {
+        JSONObject lazy = new SPiDResponse(httpResponse(200, USER)).getJsonObject();
+        JSONObject eager = new SPiDResponse(httpResponse(400, USER)).getJsonObject();
+
+        assertEquals(eager.toString(), lazy.toString());
+    }
+
+    @Test
+    public void getJsonObject_successfulResponse_releasesContent() throws Exception {
+        SPiDResponse response = new SPiDResponse(httpResponse(200, USER));
+
+        response.getJsonObject();
+
+        assertNull(content(response));
+        assertEquals(response.getJsonObject().toString(), response.getBody());
+    }
+
+    @Test
+    public void getBody_beforeJsonObject_returnsOriginalBody() throws Exception {
+        SPiDResponse response = new SPiDResponse(httpResponse(200, USER));
+
+        assertEquals(USER, response.getBody());
+        response.getJsonObject();
+
+        assertNull(content(response));
+        assertEquals(USER, response.getBody());
+    }
+
+    @Test
+    public void init_errorInSuccessfulResponse_setsException() throws Exception {
+        SPiDResponse response = new SPiDResponse(httpResponse(200, ERROR));
+
+        assertTrue(response.isSuccessful());
+        assertTrue(response.getException() instanceof SPiDException);
+        assertEquals("invalid_grant", response.getJsonObject().getString("error"));
+    }
+
+    @Test
+    public void init_nullErrorInSuccessfulResponse_hasNoException() throws Exception {
+        SPiDResponse response = new SPiDResponse(httpResponse(200, "{\"error\":null,\"name\":\"user\"}"));
+
+        assertNull(response.getException());
+    }
+
+    @Test
+    public void init_leanSuccessfulResponse_dropsBodyAndHeaders() throws Exception {
+        SPiDResponse response = new SPiDResponse(httpResponse(200, USER), true);
+
+        assertNull(response.getException());
+        assertEquals("", response.getBody());
+        assertEquals(0, response.getJsonObject().length());
+        assertTrue(headers(response).isEmpty());
+        assertEquals(200, response.getCode());
+    }
+
+    @Test
+    public void init_leanResponseWithErrorInBody_keepsBodyAndHeaders() throws Exception {
+        SPiDHttpResponse httpResponse = httpResponse(200, ERROR);
+        SPiDResponse response = new SPiDResponse(httpResponse, true);
+
+        assertTrue(response.getException() instanceof SPiDException);
+        assertEquals(ERROR, response.getBody());
+        assertEquals("invalid_grant", response.getJsonObject().getString("error"));
+        assertFalse(headers(response).isEmpty());
+    }
+
+    @Test
+    public void init_leanErrorResponse_keepsBodyAndHeaders() throws Exception {
+        SPiDResponse response = new SPiDResponse(httpResponse(401, ERROR), true);
+
+        assertTrue(response.getException() instanceof SPiDException);
+        assertEquals(ERROR, response.getBody());
+        assertFalse(headers(response).isEmpty());
+    }
+
+    @Test
+    public void getJsonObject_exceptionResponse_returnsEmptyObject() throws Exception {
+        IOException exception = new IOException("Network unreachable");
+        SPiDResponse response = new SPiDResponse(exception);
+
+        assertEquals(0, response.getJsonObject().length());
+        assertEquals("", response.getBody());
+        assertSame(exception, response.getException());
+    }
+
+    private static SPiDHttpResponse httpResponse(int code, String body) throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json; charset=UTF-8");
+        return new SPiDHttpResponse(code, headers, new ByteArrayInputStream(body.getBytes("UTF-8")));
+    }
+
+    private static Object parsedJsonObject(SPiDResponse response) throws Exception {
+        Field field = SPiDResponse.class.getDeclaredField("jsonObject");
+        field.setAccessible(true);
+        return field.get(response);
+    }
+
+    private static Object content(SPiDResponse response) throws Exception {
+        Field field = SPiDResponse.class.getDeclaredField("content");
+        field.setAccessible(true);
+        return field.get(response);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> headers(SPiDResponse response) throws Exception {
+        Field field = SPiDResponse.class.getDeclaredField("headers");
+        field.setAccessible(true);
+        return (Map<String, String>) field.get(response);
+    }
+}
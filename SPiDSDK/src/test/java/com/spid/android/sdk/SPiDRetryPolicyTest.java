@@ -0,0 +1,71 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.retry.SPiDRetryPolicy;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SPiDRetryPolicyTest {
+
+    @Test
+    public void getDelay_laterRetries_growExponentiallyUpToMaxDelay() {
+        SPiDRetryPolicy policy = new SPiDRetryPolicy(10, 100, 1000, 60000);
+        Random upperBound = new FixedRandom(0.999999);
+
+        assertEquals(99, policy.getDelay(1, upperBound));
+        assertEquals(199, policy.getDelay(2, upperBound));
+        assertEquals(399, policy.getDelay(3, upperBound));
+        assertEquals(999, policy.getDelay(5, upperBound));
+        assertEquals(999, policy.getDelay(40, upperBound));
+    }
+
+    @Test
+    public void getDelay_fullJitter_isBetweenZeroAndCap() {
+        SPiDRetryPolicy policy = new SPiDRetryPolicy(10, 100, 1000, 60000);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            long delay = policy.getDelay(4, random);
+            assertTrue(delay >= 0 && delay < 800);
+        }
+        assertEquals(0, policy.getDelay(4, new FixedRandom(0)));
+    }
+
+    @Test
+    public void canRetry_budget_limitsAttemptsAndElapsedTime() {
+        SPiDRetryPolicy policy = new SPiDRetryPolicy(3, 100, 1000, 5000);
+
+        assertTrue(policy.canRetry(1, 0, 100));
+        assertTrue(policy.canRetry(2, 4000, 1000));
+        assertFalse(policy.canRetry(3, 0, 100));
+        assertFalse(policy.canRetry(2, 4500, 1000));
+    }
+
+    @Test
+    public void canRetry_none_neverRetries() {
+        assertFalse(SPiDRetryPolicy.NONE.canRetry(1, 0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_maxDelayBelowBaseDelay_throwsIllegalArgumentException() {
+        new SPiDRetryPolicy(3, 1000, 100, 5000);
+    }
+
+    private static class FixedRandom extends Random {
+        private final double value;
+
+        FixedRandom(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double nextDouble() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+import com.spid.android.sdk.keychain.SPiDAccessTokenRecord;
+import com.spid.android.sdk.keychain.SPiDFileTokenStore;
+import com.spid.android.sdk.keychain.SPiDKeychainCipher;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark for the stored access token load that <code>SPiDClient.configure</code> used to run on the calling
+ * thread: reading the record from a token store, deriving the cipher and decrypting the record. Since the load runs
+ * in the background this is the startup time configure no longer blocks on. Not a JUnit test, run it with
+ * <code>main</code> on a JVM, device numbers are higher since storage and PBE key derivation are slower there.
+ */
+public class SPiDTokenLoadBenchmark {
+
+    private static final String KEY = "encryption-key";
+    private static final String SALT = "12345678";
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        File file = File.createTempFile("spid-token", null);
+        try {
+            SPiDFileTokenStore tokenStore = new SPiDFileTokenStore(file);
+            SPiDAccessToken accessToken = new SPiDAccessToken("access", System.currentTimeMillis() + 3600000, "refresh", "user");
+            tokenStore.save(new SPiDKeychainCipher(KEY, SALT).encrypt(SPiDAccessTokenRecord.encode(accessToken)));
+
+            for (int i = 0; i < WARMUP; i++) {
+                load(tokenStore);
+            }
+            long[] samples = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                load(tokenStore);
+                samples[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(samples);
+            System.out.println("Cold token load, median: " + TimeUnit.NANOSECONDS.toMicros(samples[ITERATIONS / 2]) + " us");
+            System.out.println("Cold token load, p95:    " + TimeUnit.NANOSECONDS.toMicros(samples[ITERATIONS * 95 / 100]) + " us");
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    private static SPiDAccessToken load(SPiDFileTokenStore tokenStore) throws Exception {
+        // A new cipher each time, configure derives the key once per process
+        SPiDKeychainCipher cipher = new SPiDKeychainCipher(KEY, SALT);
+        return SPiDAccessTokenRecord.decode(cipher.decrypt(tokenStore.load()));
+    }
+}
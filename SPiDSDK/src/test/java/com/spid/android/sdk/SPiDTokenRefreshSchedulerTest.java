@@ -0,0 +1,111 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+import com.spid.android.sdk.accesstoken.SPiDTokenRefreshScheduler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SPiDTokenRefreshSchedulerTest {
+
+    private static final long NOW = 1000000;
+    private static final long LIFETIME = 3600000;
+
+    private TestScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler(0.8f);
+    }
+
+    @Test
+    public void getRefreshTime_validToken_usesRefreshFraction() {
+        SPiDAccessToken accessToken = createToken(NOW + LIFETIME, "refresh");
+
+        assertEquals(NOW + 2880000, SPiDTokenRefreshScheduler.getRefreshTime(accessToken, 0.8f, NOW));
+        assertEquals(NOW + 1800000, SPiDTokenRefreshScheduler.getRefreshTime(accessToken, 0.5f, NOW));
+    }
+
+    @Test
+    public void getRefreshTime_knownIssueTime_usesFractionOfTotalLifetime() {
+        SPiDAccessToken accessToken = new SPiDAccessToken("access", NOW - 1000000, NOW - 1000000 + LIFETIME, "refresh", "user");
+
+        assertEquals(NOW - 1000000 + 2880000, SPiDTokenRefreshScheduler.getRefreshTime(accessToken, 0.8f, NOW));
+    }
+
+    @Test
+    public void getRefreshTime_loadedLateInLifetime_refreshesNow() {
+        SPiDAccessToken accessToken = new SPiDAccessToken("access", NOW - 3000000, NOW - 3000000 + LIFETIME, "refresh", "user");
+
+        assertEquals(NOW, SPiDTokenRefreshScheduler.getRefreshTime(accessToken, 0.8f, NOW));
+    }
+
+    @Test
+    public void getRefreshTime_expiredToken_refreshesNow() {
+        assertEquals(NOW, SPiDTokenRefreshScheduler.getRefreshTime(createToken(NOW - 1000, "refresh"), 0.8f, NOW));
+    }
+
+    @Test
+    public void getRefreshTime_noRefreshToken_returnsZero() {
+        assertEquals(0, SPiDTokenRefreshScheduler.getRefreshTime(createToken(NOW + LIFETIME, null), 0.8f, NOW));
+        assertEquals(0, SPiDTokenRefreshScheduler.getRefreshTime(null, 0.8f, NOW));
+    }
+
+    @Test
+    public void onForeground_beforeRefreshTime_doesNotRefresh() {
+        scheduler.schedule(createToken(NOW + LIFETIME, "refresh"), NOW);
+
+        scheduler.onForeground(NOW + 2879999);
+
+        assertEquals(0, scheduler.refreshes);
+    }
+
+    @Test
+    public void onForeground_refreshTimePassedWhileAsleep_refreshesAtOnce() {
+        scheduler.schedule(createToken(NOW + LIFETIME, "refresh"), NOW);
+
+        scheduler.onForeground(NOW + 2880000);
+
+        assertEquals(1, scheduler.refreshes);
+    }
+
+    @Test
+    public void stop_scheduledRefresh_cancelsRefresh() {
+        scheduler.schedule(createToken(NOW + LIFETIME, "refresh"), NOW);
+
+        scheduler.stop();
+        scheduler.onForeground(NOW + LIFETIME);
+
+        assertEquals(0, scheduler.getRefreshAt());
+        assertEquals(0, scheduler.refreshes);
+    }
+
+    @Test
+    public void schedule_nullToken_cancelsRefresh() {
+        scheduler.schedule(createToken(NOW + LIFETIME, "refresh"), NOW);
+
+        scheduler.schedule(null, NOW);
+        scheduler.onForeground(NOW + LIFETIME);
+
+        assertEquals(0, scheduler.refreshes);
+    }
+
+    private static SPiDAccessToken createToken(long expiresAt, String refreshToken) {
+        return new SPiDAccessToken("access", expiresAt, refreshToken, "user");
+    }
+
+    private static class TestScheduler extends SPiDTokenRefreshScheduler {
+        private int refreshes;
+
+        TestScheduler(float refreshFraction) {
+            super(refreshFraction);
+        }
+
+        @Override
+        protected void refresh() {
+            refreshes++;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+import com.spid.android.sdk.keychain.SPiDAccessTokenRecord;
+import com.spid.android.sdk.keychain.SPiDFileTokenStore;
+import com.spid.android.sdk.keychain.SPiDKeychainCipher;
+import com.spid.android.sdk.keychain.SPiDMappedFileTokenStore;
+import com.spid.android.sdk.keychain.SPiDSharedPreferencesTokenStore;
+import com.spid.android.sdk.keychain.SPiDTokenStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark comparing read and write latency of the token stores with an encrypted access token record. Not a
+ * JUnit test, run it with <code>main</code> on a JVM for the file stores. The SharedPreferences store needs the
+ * platform, call {@link #runOnDevice(File)} on a device once <code>SPiDClient</code> is configured. Its writes
+ * are applied in the background, so its write latency is what the calling thread sees, not the disk write.
+ */
+public class SPiDTokenStoreBenchmark {
+
+    private static final String KEY = "encryption-key";
+    private static final String SALT = "12345678";
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        File dir = File.createTempFile("spid-token-store", null);
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IllegalStateException("Could not create " + dir);
+        }
+        try {
+            runFileStores(dir, createRecord());
+        } finally {
+            deleteFiles(dir);
+        }
+    }
+
+    /**
+     * Runs the benchmark for all token stores, the access token stored in SharedPreferences is restored afterwards
+     *
+     * @param dir Directory for the file stores, e.g. <code>Context.getCacheDir()</code>
+     * @throws Exception If a store fails
+     */
+    public static void runOnDevice(File dir) throws Exception {
+        byte[] record = createRecord();
+        SPiDTokenStore preferencesStore = new SPiDSharedPreferencesTokenStore();
+        byte[] stored = preferencesStore.load();
+        try {
+            measure("SharedPreferences", preferencesStore, record);
+        } finally {
+            if (stored != null) {
+                preferencesStore.save(stored);
+            } else {
+                preferencesStore.clear();
+            }
+        }
+        runFileStores(dir, record);
+    }
+
+    private static void runFileStores(File dir, byte[] record) throws Exception {
+        File file = new File(dir, "spid-token-benchmark");
+        File mappedFile = new File(dir, "spid-token-benchmark-mapped");
+        try {
+            measure("File", new SPiDFileTokenStore(file), record);
+            measure("Memory-mapped file", new SPiDMappedFileTokenStore(mappedFile), record);
+        } finally {
+            delete(file);
+            delete(mappedFile);
+        }
+    }
+
+    private static byte[] createRecord() throws Exception {
+        SPiDAccessToken accessToken = new SPiDAccessToken("access", System.currentTimeMillis(),
+                System.currentTimeMillis() + 3600000, "refresh", "user");
+        return new SPiDKeychainCipher(KEY, SALT).encrypt(SPiDAccessTokenRecord.encode(accessToken));
+    }
+
+    private static void measure(String name, SPiDTokenStore tokenStore, byte[] record) throws IOException {
+        for (int i = 0; i < WARMUP; i++) {
+            tokenStore.save(record);
+            tokenStore.load();
+        }
+        long[] writes = new long[ITERATIONS];
+        long[] reads = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            tokenStore.save(record);
+            writes[i] = System.nanoTime() - start;
+            start = System.nanoTime();
+            byte[] loaded = tokenStore.load();
+            reads[i] = System.nanoTime() - start;
+            if (loaded == null || loaded.length != record.length) {
+                throw new IllegalStateException(name + " store did not return the saved record");
+            }
+        }
+        report(name + " write", writes);
+        report(name + " read", reads);
+    }
+
+    private static void report(String name, long[] samples) {
+        Arrays.sort(samples);
+        System.out.println(name + ", median: " + TimeUnit.NANOSECONDS.toMicros(samples[samples.length / 2]) + " us");
+        System.out.println(name + ", p95:    " + TimeUnit.NANOSECONDS.toMicros(samples[samples.length * 95 / 100]) + " us");
+    }
+
+    private static void deleteFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                delete(file);
+            }
+        }
+        delete(dir);
+    }
+
+    private static void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
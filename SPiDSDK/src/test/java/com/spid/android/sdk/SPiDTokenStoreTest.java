@@ -0,0 +1,87 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.keychain.SPiDFileTokenStore;
+import com.spid.android.sdk.keychain.SPiDMappedFileTokenStore;
+import com.spid.android.sdk.keychain.SPiDTokenStore;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class SPiDTokenStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void fileStore_saveAndLoad_returnsLatestRecord() throws Exception {
+        assertSaveAndLoad(new SPiDFileTokenStore(new File(folder.getRoot(), "token")));
+    }
+
+    @Test
+    public void fileStore_save_leavesNoTemporaryFile() throws Exception {
+        File file = new File(folder.getRoot(), "token");
+        new SPiDFileTokenStore(file).save(new byte[]{1, 2, 3});
+
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void mappedFileStore_saveAndLoad_returnsLatestRecord() throws Exception {
+        assertSaveAndLoad(new SPiDMappedFileTokenStore(new File(folder.getRoot(), "token")));
+    }
+
+    @Test
+    public void mappedFileStore_newInstance_readsSavedRecord() throws Exception {
+        File file = new File(folder.getRoot(), "token");
+        new SPiDMappedFileTokenStore(file).save(new byte[]{1, 2, 3});
+
+        assertArrayEquals(new byte[]{1, 2, 3}, new SPiDMappedFileTokenStore(file).load());
+    }
+
+    @Test
+    public void mappedFileStore_clear_zeroesRecordInFile() throws Exception {
+        File file = new File(folder.getRoot(), "token");
+        SPiDMappedFileTokenStore store = new SPiDMappedFileTokenStore(file, 16);
+        store.save(new byte[]{1, 2, 3});
+
+        store.clear();
+
+        assertArrayEquals(new byte[16], readFile(file));
+    }
+
+    @Test(expected = IOException.class)
+    public void mappedFileStore_recordLargerThanCapacity_throwsIOException() throws Exception {
+        new SPiDMappedFileTokenStore(new File(folder.getRoot(), "token"), 16).save(new byte[32]);
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            randomAccessFile.readFully(content);
+        } finally {
+            randomAccessFile.close();
+        }
+        return content;
+    }
+
+    private static void assertSaveAndLoad(SPiDTokenStore store) throws IOException {
+        assertNull(store.load());
+
+        store.save(new byte[]{1, 2, 3, 4, 5});
+        store.save(new byte[]{6, 7});
+        assertArrayEquals(new byte[]{6, 7}, store.load());
+
+        store.clear();
+        assertNull(store.load());
+    }
+}
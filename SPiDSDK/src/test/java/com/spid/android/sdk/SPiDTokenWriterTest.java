@@ -0,0 +1,87 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.accesstoken.SPiDAccessToken;
+import com.spid.android.sdk.keychain.SPiDTokenWriter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SPiDTokenWriterTest {
+
+    @Test
+    public void save_whileWriteIsRunning_coalescesToLatestToken() throws Exception {
+        TestTokenWriter writer = new TestTokenWriter();
+        SPiDAccessToken first = createToken("first");
+        SPiDAccessToken last = createToken("last");
+
+        writer.save("key", first);
+        assertTrue(writer.writeStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            writer.save("key", createToken("token" + i));
+        }
+        writer.save("key", last);
+        writer.release.countDown();
+        awaitWrites(writer);
+
+        assertEquals(2, writer.written.size());
+        assertEquals(first, writer.written.get(0));
+        assertEquals(last, writer.written.get(1));
+    }
+
+    @Test
+    public void clear_afterSave_deletesLast() throws Exception {
+        TestTokenWriter writer = new TestTokenWriter();
+        writer.release.countDown();
+
+        writer.save("key", createToken("first"));
+        writer.clear();
+        awaitWrites(writer);
+
+        assertNull(writer.written.get(writer.written.size() - 1));
+    }
+
+    private static void awaitWrites(SPiDTokenWriter writer) throws InterruptedException {
+        final CountDownLatch idle = new CountDownLatch(1);
+        writer.getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                idle.countDown();
+            }
+        });
+        assertTrue(idle.await(5, TimeUnit.SECONDS));
+    }
+
+    private static SPiDAccessToken createToken(String value) {
+        return new SPiDAccessToken(value, System.currentTimeMillis() + 3600000, "refresh", "123");
+    }
+
+    private static class TestTokenWriter extends SPiDTokenWriter {
+        private final List<SPiDAccessToken> written = new ArrayList<>();
+        private final CountDownLatch writeStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected void write(String encryptionKey, SPiDAccessToken accessToken) {
+            writeStarted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.add(accessToken);
+        }
+
+        @Override
+        protected void delete() {
+            written.add(null);
+        }
+    }
+}
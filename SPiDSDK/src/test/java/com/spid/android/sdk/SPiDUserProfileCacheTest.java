@@ -0,0 +1,100 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.cache.SPiDUserProfileCache;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SPiDUserProfileCacheTest {
+
+    private static final String KEY = "secret";
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "profile");
+    }
+
+    @Test
+    public void put_newProfile_returnsChanged() {
+        SPiDUserProfileCache cache = new SPiDUserProfileCache(file, KEY, DIRECT);
+
+        assertTrue(cache.put("123", new byte[]{1, 2}));
+        assertFalse(cache.put("123", new byte[]{1, 2}));
+        assertTrue(cache.put("123", new byte[]{3}));
+    }
+
+    @Test
+    public void get_newInstance_readsEncryptedSnapshot() {
+        new SPiDUserProfileCache(file, KEY, DIRECT).put("123", new byte[]{'{', '}'});
+
+        assertArrayEquals(new byte[]{'{', '}'}, new SPiDUserProfileCache(file, KEY, DIRECT).get("123"));
+    }
+
+    @Test
+    public void get_otherUser_returnsNull() {
+        SPiDUserProfileCache cache = new SPiDUserProfileCache(file, KEY, DIRECT);
+        cache.put("123", new byte[]{1});
+
+        assertNull(cache.get("456"));
+        assertNull(new SPiDUserProfileCache(file, KEY, DIRECT).get("456"));
+    }
+
+    @Test
+    public void get_otherKey_returnsNull() {
+        new SPiDUserProfileCache(file, KEY, DIRECT).put("123", new byte[]{1});
+
+        assertNull(new SPiDUserProfileCache(file, "other", DIRECT).get("123"));
+    }
+
+    @Test
+    public void clear_removesSnapshot() {
+        SPiDUserProfileCache cache = new SPiDUserProfileCache(file, KEY, DIRECT);
+        cache.put("123", new byte[]{1});
+        cache.clear();
+
+        assertNull(cache.get("123"));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void put_separateFiles_useDifferentSalts() throws Exception {
+        File other = new File(folder.getRoot(), "other");
+        new SPiDUserProfileCache(file, KEY, DIRECT).put("123", new byte[]{1});
+        new SPiDUserProfileCache(other, KEY, DIRECT).put("123", new byte[]{1});
+
+        assertFalse(Arrays.equals(Files.readAllBytes(file.toPath()), Files.readAllBytes(other.toPath())));
+    }
+
+    @Test
+    public void put_afterClear_keepsSalt() {
+        SPiDUserProfileCache cache = new SPiDUserProfileCache(file, KEY, DIRECT);
+        cache.put("123", new byte[]{1});
+        cache.clear();
+        cache.put("456", new byte[]{2});
+
+        assertArrayEquals(new byte[]{2}, new SPiDUserProfileCache(file, KEY, DIRECT).get("456"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.spid.android.sdk;
+
+import com.spid.android.sdk.utils.SPiDUtils;
+
+import org.junit.Test;
+
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+
+public class SPiDUtilsTest {
+
+    private static final String HMAC_KEY = "Jefe";
+    private static final String HMAC_INPUT = "what do ya want for nothing?";
+    private static final String HMAC_EXPECTED = "5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843";
+
+    @Test
+    public void byteArrayToHexString_allByteValues_matchesFormattedHex() throws Exception {
+        byte[] bytes = new byte[256];
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+            expected.append(String.format("%02x", bytes[i]));
+        }
+
+        assertEquals(expected.toString(), SPiDUtils.byteArrayToHexString(bytes));
+    }
+
+    @Test
+    public void encodeBase64_inputsAroundLineLength_matchesDefaultBase64() throws Exception {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            assertEquals(defaultBase64(input.toString()), SPiDUtils.encodeBase64(input.toString()));
+            input.append(i % 3 == 0 ? 'a' : 'z');
+        }
+    }
+
+    @Test
+    public void encodeBase64_multiByteCharacters_encodesUtf8() throws Exception {
+        String input = "bl\u00e5b\u00e6r \u20ac \ud83d\ude00 \ud83d";
+
+        assertEquals(defaultBase64(input), SPiDUtils.encodeBase64(input));
+    }
+
+    @Test
+    public void appendBase64_builderWithContent_appendsEncodedInput() throws Exception {
+        StringBuilder builder = new StringBuilder("header.");
+
+        SPiDUtils.appendBase64(builder, "claim");
+
+        assertEquals("header." + defaultBase64("claim"), builder.toString());
+    }
+
+    @Test
+    public void getHmacSHA256_repeatedCalls_returnsSameSignature() throws Exception {
+        assertEquals(HMAC_EXPECTED, SPiDUtils.getHmacSHA256(HMAC_KEY, HMAC_INPUT));
+        assertEquals(HMAC_EXPECTED, SPiDUtils.getHmacSHA256(HMAC_KEY, HMAC_INPUT));
+    }
+
+    @Test
+    public void getHmacSHA256_changedKey_usesNewKey() throws Exception {
+        String other = SPiDUtils.getHmacSHA256("other", HMAC_INPUT);
+
+        assertEquals(HMAC_EXPECTED, SPiDUtils.getHmacSHA256(HMAC_KEY, HMAC_INPUT));
+        assertEquals(other, SPiDUtils.getHmacSHA256("other", HMAC_INPUT));
+    }
+
+    /**
+     * Output of <code>Base64.encodeToString(bytes, Base64.DEFAULT)</code> on Android, lines of 76 characters
+     * each ended by a line feed
+     */
+    private static String defaultBase64(String input) throws Exception {
+        String encoded = Base64.getMimeEncoder(76, new byte[]{'\n'}).encodeToString(input.getBytes("UTF-8"));
+        return encoded.isEmpty() ? encoded : encoded + "\n";
+    }
+}